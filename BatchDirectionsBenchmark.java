@@ -0,0 +1,84 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how the throughput of a BatchDirectionsService scales with the
+ * number of threads, against the number of cores of the machine.
+ * <p>
+ * Run with <tt>java homework1.BatchDirectionsBenchmark [routes] [segments] [rounds]</tt>.
+ * Builds the given number of random routes of up to the given number of
+ * segments, formats them as driving directions with 1, 2, 4, ... threads, up
+ * to twice the number of cores, both in order and unordered, and prints the
+ * routes formatted per second and the speedup over a single thread.
+ */
+public class BatchDirectionsBenchmark {
+
+	private static final int QUEUE_PER_THREAD = 64;
+
+	private final List<Route> routes = new ArrayList<Route>();
+
+	public BatchDirectionsBenchmark(int count, int segments) {
+		Random random = new Random(0);
+		for (int i = 0; i < count; i++) {
+			GeoPoint p = new GeoPoint(32780000, 35010000);
+			Route route = null;
+			int street = 0;
+			int n = 1 + random.nextInt(segments);
+			for (int j = 0; j < n; j++) {
+				if (random.nextInt(3) == 0) {
+					street++;
+				}
+				GeoPoint q = new GeoPoint(p.getLatitude() + random.nextInt(2001) - 1000,
+										  p.getLongitude() + random.nextInt(2001) - 1000);
+				GeoSegment gs = new GeoSegment("Street " + street, p, q);
+				route = (route == null) ? new Route(gs) : route.addSegment(gs);
+				p = q;
+			}
+			routes.add(route);
+		}
+	}
+
+	// returns the best throughput, in routes per second, over rounds runs
+	private double time(BatchDirectionsService service, boolean ordered, int rounds) throws InterruptedException {
+		final long[] chars = new long[1];
+		double best = 0;
+		for (int r = 0; r < rounds; r++) {
+			long start = System.nanoTime();
+			service.formatAll(routes.iterator(), 0, ordered, (d, i) -> chars[0] += d.length());
+			long elapsed = System.nanoTime() - start;
+			best = Math.max(best, routes.size() * 1e9 / elapsed);
+		}
+		return best;
+	}
+
+	public void benchmark(int rounds) throws InterruptedException {
+		int cores = Runtime.getRuntime().availableProcessors();
+		System.out.printf("%d routes, %d cores%n", routes.size(), cores);
+		double baseOrdered = 0;
+		double baseUnordered = 0;
+		for (int threads = 1; threads <= 2 * cores; threads *= 2) {
+			try (BatchDirectionsService service =
+					new BatchDirectionsService(new DrivingRouteFormatter(), threads, QUEUE_PER_THREAD * threads)) {
+				time(service, true, 1);
+				double ordered = time(service, true, rounds);
+				double unordered = time(service, false, rounds);
+				if (threads == 1) {
+					baseOrdered = ordered;
+					baseUnordered = unordered;
+				}
+				System.out.printf("%3d threads  ordered %10.0f routes/s (x%.2f)  unordered %10.0f routes/s (x%.2f)%n",
+						threads, ordered, ordered / baseOrdered, unordered, unordered / baseUnordered);
+			}
+		}
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		int count = (args.length > 0) ? Integer.parseInt(args[0]) : 20000;
+		int segments = (args.length > 1) ? Integer.parseInt(args[1]) : 40;
+		int rounds = (args.length > 2) ? Integer.parseInt(args[2]) : 5;
+		new BatchDirectionsBenchmark(count, segments).benchmark(rounds);
+	}
+}
@@ -0,0 +1,276 @@
+package homework1;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * A BatchDirectionsService formats many Routes concurrently with one
+ * RouteFormatter, which must be safe for use by multiple threads, as
+ * DrivingRouteFormatter and WalkingRouteFormatter are.
+ * <p>
+ * The routes of a batch are read one at a time from an Iterator or a
+ * Stream, so a batch need not fit in memory, and each is formatted by a task
+ * of an ExecutorService: either a fixed pool of threads owned by the
+ * service, or an executor supplied by the caller, such as a ForkJoinPool.
+ * At most queueCapacity routes of a batch are read but not yet delivered at
+ * any time; when that many are pending, reading the next route waits for
+ * one to be delivered, so a slow consumer slows down the reading of routes
+ * instead of letting formatted directions pile up.
+ * <p>
+ * Directions are delivered to a consumer together with the index of their
+ * route in the batch, either in the order of the routes, or as soon as each
+ * is formatted. The consumer is called by one thread at a time, so it need
+ * not be safe for use by multiple threads itself.
+ * <p>
+ * BatchDirectionsServices are safe for use by multiple threads; batches
+ * formatted at the same time share the executor but not their queues.
+ */
+public class BatchDirectionsService implements AutoCloseable {
+
+	private final RouteFormatter formatter;
+	private final ExecutorService executor;
+	private final boolean ownsExecutor;
+	private final int queueCapacity;
+
+	/**
+	 * Constructs a new BatchDirectionsService with its own pool of threads.
+	 * @requires formatter != null && threads > 0 && queueCapacity > 0
+	 * @effects Constructs a new BatchDirectionsService that formats routes
+	 * 			with formatter on threads threads, with up to queueCapacity
+	 * 			routes of each batch pending. The threads are daemon threads,
+	 * 			stopped by close().
+	 * @throws IllegalArgumentException if threads <= 0 or queueCapacity <= 0.
+	 */
+	public BatchDirectionsService(RouteFormatter formatter, int threads, int queueCapacity) {
+		this(formatter, Executors.newFixedThreadPool(threads, new DaemonThreadFactory()), true, queueCapacity);
+	}
+
+	/**
+	 * Constructs a new BatchDirectionsService on a given executor.
+	 * @requires formatter != null && executor != null && queueCapacity > 0
+	 * @effects Constructs a new BatchDirectionsService that formats routes
+	 * 			with formatter on executor, with up to queueCapacity routes of
+	 * 			each batch pending. close() does not shut executor down.
+	 * @throws IllegalArgumentException if queueCapacity <= 0.
+	 */
+	public BatchDirectionsService(RouteFormatter formatter, ExecutorService executor, int queueCapacity) {
+		this(formatter, executor, false, queueCapacity);
+	}
+
+	private BatchDirectionsService(RouteFormatter formatter, ExecutorService executor, boolean ownsExecutor,
+								   int queueCapacity) {
+		if (queueCapacity <= 0) {
+			if (ownsExecutor) {
+				executor.shutdown();
+			}
+			throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+		}
+		this.formatter = formatter;
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Formats a batch of routes.
+	 * @requires routes != null && no element of routes is null &&
+	 * 			0 <= heading < 360
+	 * @return a List d of routes.size() Strings, in the order of routes,
+	 * 		   where d[i] = formatter.computeDirections(route i, heading).
+	 * @throws InterruptedException if the calling thread is interrupted while
+	 * 		   it waits.
+	 * @throws RuntimeException the first exception thrown by formatter, if
+	 * 		   any; no list is returned then.
+	 */
+	public List<String> formatAll(Collection<? extends Route> routes, double heading) throws InterruptedException {
+		final String[] directions = new String[routes.size()];
+		this.formatAll(routes.iterator(), heading, false, (d, i) -> directions[i] = d);
+		return Arrays.asList(directions);
+	}
+
+	/**
+	 * Formats a batch of routes, delivering their directions to a consumer.
+	 * @requires routes != null && no element of routes is null &&
+	 * 			consumer != null && 0 <= heading < 360
+	 * @modifies routes
+	 * @effects Reads every element of routes, formats it, and calls
+	 * 			consumer.accept(formatter.computeDirections(route i, heading), i)
+	 * 			for the i'th route read, in the order of i if ordered, and
+	 * 			otherwise in the order the routes are formatted in.
+	 * @throws InterruptedException if the calling thread is interrupted while
+	 * 		   it waits; routes formatted after that are not delivered.
+	 * @throws RuntimeException the first exception thrown by formatter or
+	 * 		   consumer, if any. No route is read, and no directions are
+	 * 		   delivered, after that.
+	 */
+	public void formatAll(Iterator<? extends Route> routes, double heading, boolean ordered,
+						  ObjIntConsumer<String> consumer) throws InterruptedException {
+		Batch batch = new Batch(heading, ordered, consumer);
+		try {
+			for (int index = 0; batch.failure == null; index++) {
+				// a permit is taken before a route is read, so that no more
+				// than queueCapacity routes are ever pending
+				batch.permits.acquire();
+				if (!routes.hasNext()) {
+					batch.permits.release();
+					break;
+				}
+				final Route route = routes.next();
+				final int i = index;
+				try {
+					this.executor.execute(() -> batch.format(i, route));
+				} catch (RejectedExecutionException e) {
+					batch.permits.release();
+					batch.fail(e);
+				}
+			}
+			// wait for the routes in flight
+			batch.permits.acquire(this.queueCapacity);
+		} catch (InterruptedException | RuntimeException e) {
+			batch.cancelled = true;
+			throw e;
+		}
+		Throwable failure = batch.failure;
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		} else if (failure != null) {
+			throw (RuntimeException) failure;
+		}
+	}
+
+	/**
+	 * Formats a batch of routes, delivering their directions to a consumer.
+	 * @requires routes != null && no element of routes is null &&
+	 * 			consumer != null && 0 <= heading < 360
+	 * @effects formatAll(routes.iterator(), heading, ordered, consumer)
+	 * @throws InterruptedException if the calling thread is interrupted while
+	 * 		   it waits; routes formatted after that are not delivered.
+	 * @throws RuntimeException the first exception thrown by formatter or
+	 * 		   consumer, if any.
+	 */
+	public void formatAll(Stream<? extends Route> routes, double heading, boolean ordered,
+						  ObjIntConsumer<String> consumer) throws InterruptedException {
+		this.formatAll(routes.iterator(), heading, ordered, consumer);
+	}
+
+	/**
+	 * Returns the queue capacity of this.
+	 * @return the number of routes of a batch that may be pending at once.
+	 */
+	public int getQueueCapacity() {
+		return this.queueCapacity;
+	}
+
+	/**
+	 * Stops the threads of this, if it has its own.
+	 * @modifies this
+	 * @effects Shuts down the pool of threads of this, once the routes
+	 * 			already read are formatted. An executor supplied by the caller
+	 * 			is left running.
+	 */
+	public void close() {
+		if (this.ownsExecutor) {
+			this.executor.shutdown();
+		}
+	}
+
+	// The state of one call to formatAll(). A permit is taken for every route
+	// read, and given back once its directions are delivered.
+	private final class Batch {
+		final double heading;
+		final boolean ordered;
+		final ObjIntConsumer<String> consumer;
+		final Semaphore permits = new Semaphore(BatchDirectionsService.this.queueCapacity);
+
+		// When ordered, the route with index i is formatted but not yet
+		// delivered iff done[i % queueCapacity], and then its directions are
+		// in results[i % queueCapacity]. The routes in flight all have indices
+		// in [next, next + queueCapacity), since a route's permit is only given
+		// back when it is delivered, so they never share a slot.
+		final String[] results;
+		final boolean[] done;
+		int next;
+
+		volatile Throwable failure;
+		volatile boolean cancelled;
+
+		Batch(double heading, boolean ordered, ObjIntConsumer<String> consumer) {
+			int capacity = BatchDirectionsService.this.queueCapacity;
+			this.heading = heading;
+			this.ordered = ordered;
+			this.consumer = consumer;
+			this.results = ordered ? new String[capacity] : null;
+			this.done = ordered ? new boolean[capacity] : null;
+		}
+
+		void format(int index, Route route) {
+			String directions = null;
+			if (this.failure == null && !this.cancelled) {
+				try {
+					directions = BatchDirectionsService.this.formatter.computeDirections(route, this.heading);
+				} catch (RuntimeException | Error e) {
+					this.fail(e);
+				}
+			}
+			this.deliver(index, directions);
+		}
+
+		synchronized void fail(Throwable e) {
+			if (this.failure == null) {
+				this.failure = e;
+			}
+		}
+
+		synchronized void deliver(int index, String directions) {
+			if (!this.ordered) {
+				this.accept(directions, index);
+				this.permits.release();
+				return;
+			}
+			int slot = index % this.results.length;
+			this.results[slot] = directions;
+			this.done[slot] = true;
+			for (slot = this.next % this.results.length; this.done[slot]; slot = this.next % this.results.length) {
+				this.accept(this.results[slot], this.next);
+				this.results[slot] = null;
+				this.done[slot] = false;
+				this.next++;
+				this.permits.release();
+			}
+		}
+
+		// called with the lock of this held
+		private void accept(String directions, int index) {
+			if (directions == null || this.failure != null || this.cancelled) {
+				return;
+			}
+			try {
+				this.consumer.accept(directions, index);
+			} catch (RuntimeException | Error e) {
+				this.fail(e);
+			}
+		}
+	}
+
+	private static final class DaemonThreadFactory implements ThreadFactory {
+		private static final AtomicInteger pools = new AtomicInteger();
+		private final int pool = pools.incrementAndGet();
+		private final AtomicInteger threads = new AtomicInteger();
+
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "directions-" + this.pool + "-" + this.threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
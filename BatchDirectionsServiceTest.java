@@ -0,0 +1,203 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchDirectionsServiceTest {
+
+	// a DrivingRouteFormatter that records how many routes it formats at once,
+	// and fails on routes of a given length
+	private static class TrackingFormatter extends DrivingRouteFormatter {
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		final int failingSegmentCount;
+
+		TrackingFormatter(int failingSegmentCount) {
+			this.failingSegmentCount = failingSegmentCount;
+		}
+
+		public String computeDirections(Route route, double heading) {
+			int now = this.running.incrementAndGet();
+			this.maxRunning.accumulateAndGet(now, Math::max);
+			try {
+				if (route.getSegmentCount() == this.failingSegmentCount) {
+					throw new IllegalStateException("failing route");
+				}
+				return super.computeDirections(route, heading);
+			} finally {
+				this.running.decrementAndGet();
+			}
+		}
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	// a random walk that often continues on the same street
+	private static Route randomRoute(Random random, int segments) {
+		GeoPoint p = new GeoPoint(32780000, 35010000);
+		Route route = null;
+		int street = 0;
+		for (int i = 0; i < segments; i++) {
+			if (random.nextInt(3) == 0) {
+				street++;
+			}
+			GeoPoint q = new GeoPoint(p.getLatitude() + random.nextInt(2001) - 1000,
+									  p.getLongitude() + random.nextInt(2001) - 1000);
+			GeoSegment gs = new GeoSegment("Street " + street, p, q);
+			route = (route == null) ? new Route(gs) : route.addSegment(gs);
+			p = q;
+		}
+		return route;
+	}
+
+
+  	public void test() throws InterruptedException {
+  		Random random = new Random(25);
+  		final List<Route> routes = new ArrayList<Route>();
+  		List<String> expected = new ArrayList<String>();
+  		for (int i = 0; i < 500; i++) {
+  			routes.add(randomRoute(random, 1 + random.nextInt(40)));
+  			expected.add(new DrivingRouteFormatter().computeDirections(routes.get(i), 0));
+  		}
+
+  		show("WalkingRouteFormatter");
+  		Route route = routes.get(0);
+  		show("Default walking speed is 20 minutes per kilometer",
+  			new WalkingRouteFormatter().getWalkingSpeed() == 20
+  			&& new WalkingRouteFormatter().computeDirections(route, 0).equals(
+  				new WalkingRouteFormatter(20).computeDirections(route, 0)));
+  		show("Walking speed is per instance",
+  			new WalkingRouteFormatter(40).getWalkingSpeed() == 40
+  			&& new WalkingRouteFormatter().getWalkingSpeed() == 20);
+  		boolean thrown = false;
+  		try {
+  			new WalkingRouteFormatter(0);
+  		} catch (IllegalArgumentException e) {
+  			thrown = true;
+  		}
+  		show("Non-positive walking speed is rejected", thrown);
+
+  		try (BatchDirectionsService service = new BatchDirectionsService(new DrivingRouteFormatter(), 4, 16)) {
+  			show("formatAll()");
+  			show("Directions match computeDirections()", service.formatAll(routes, 0).equals(expected));
+
+  			final List<Integer> order = new ArrayList<Integer>();
+  			final List<String> delivered = new ArrayList<String>();
+  			service.formatAll(routes.iterator(), 0, true, (d, i) -> {
+  				order.add(i);
+  				delivered.add(d);
+  			});
+  			boolean inOrder = true;
+  			for (int i = 0; i < order.size(); i++) {
+  				inOrder &= order.get(i) == i;
+  			}
+  			show("Ordered delivery is in route order", inOrder && delivered.equals(expected));
+
+  			final String[] unordered = new String[routes.size()];
+  			final AtomicInteger deliveries = new AtomicInteger();
+  			service.formatAll(routes.stream(), 0, false, (d, i) -> {
+  				deliveries.incrementAndGet();
+  				unordered[i] = d;
+  			});
+  			List<String> unorderedList = new ArrayList<String>();
+  			for (String d : unordered) {
+  				unorderedList.add(d);
+  			}
+  			show("Unordered delivery delivers every route once",
+  				deliveries.get() == routes.size() && unorderedList.equals(expected));
+  			show("Empty batch gives no directions", service.formatAll(new ArrayList<Route>(), 0).isEmpty());
+  		}
+
+  		show("backpressure");
+  		TrackingFormatter tracking = new TrackingFormatter(-1);
+  		try (BatchDirectionsService service = new BatchDirectionsService(tracking, 8, 3)) {
+  			final AtomicInteger read = new AtomicInteger();
+  			final AtomicInteger maxPending = new AtomicInteger();
+  			final AtomicInteger delivered = new AtomicInteger();
+  			Iterator<Route> counting = new Iterator<Route>() {
+  				public boolean hasNext() {
+  					return read.get() < routes.size();
+  				}
+
+  				public Route next() {
+  					maxPending.accumulateAndGet(read.get() - delivered.get() + 1, Math::max);
+  					return routes.get(read.getAndIncrement());
+  				}
+  			};
+  			service.formatAll(counting, 0, true, (d, i) -> {
+  				try {
+  					Thread.sleep(i % 50 == 0 ? 1 : 0);
+  				} catch (InterruptedException e) {
+  					Thread.currentThread().interrupt();
+  				}
+  				delivered.incrementAndGet();
+  			});
+  			show("No more than the queue capacity is pending",
+  				maxPending.get() <= 3 && tracking.maxRunning.get() <= 3 && delivered.get() == routes.size());
+  		}
+
+  		show("failures");
+  		int failing = routes.get(routes.size() / 2).getSegmentCount();
+  		try (BatchDirectionsService service = new BatchDirectionsService(new TrackingFormatter(failing), 2, 8)) {
+  			thrown = false;
+  			try {
+  				service.formatAll(routes, 0);
+  			} catch (IllegalStateException e) {
+  				thrown = true;
+  			}
+  			show("Formatter exception is rethrown", thrown);
+  		}
+  		try (BatchDirectionsService service = new BatchDirectionsService(new DrivingRouteFormatter(), 2, 8)) {
+  			thrown = false;
+  			try {
+  				service.formatAll(routes.iterator(), 0, true, (d, i) -> {
+  					if (i == 10) {
+  						throw new UnsupportedOperationException();
+  					}
+  				});
+  			} catch (UnsupportedOperationException e) {
+  				thrown = true;
+  			}
+  			show("Consumer exception is rethrown", thrown);
+  		}
+  		thrown = false;
+  		try {
+  			new BatchDirectionsService(new DrivingRouteFormatter(), 2, 0);
+  		} catch (IllegalArgumentException e) {
+  			thrown = true;
+  		}
+  		show("Non-positive queue capacity is rejected", thrown);
+
+  		show("executors");
+  		ForkJoinPool pool = new ForkJoinPool(3);
+  		try (BatchDirectionsService service = new BatchDirectionsService(new DrivingRouteFormatter(), pool, 32)) {
+  			show("Directions on a ForkJoinPool match", service.formatAll(routes, 0).equals(expected));
+  		}
+  		show("Supplied executor is not shut down", !pool.isShutdown());
+  		pool.shutdown();
+  	}
+
+
+	public static void main(String[] args) throws InterruptedException {
+		BatchDirectionsServiceTest batchDirectionsServiceTest = new BatchDirectionsServiceTest();
+		batchDirectionsServiceTest.test();
+	}
+}
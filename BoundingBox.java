@@ -0,0 +1,182 @@
+package homework1;
+
+/**
+ * A BoundingBox is the smallest latitude/longitude aligned rectangle
+ * containing a set of GeoPoints. BoundingBoxes are immutable.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   minLatitude : integer   // southern edge, in millionths of degrees
+ *   minLongitude : integer  // western edge, in millionths of degrees
+ *   maxLatitude : integer   // northern edge, in millionths of degrees
+ *   maxLongitude : integer  // eastern edge, in millionths of degrees
+ * </pre>
+ **/
+public final class BoundingBox {
+
+	private final int minLatitude;
+	private final int minLongitude;
+	private final int maxLatitude;
+	private final int maxLongitude;
+
+	/**
+	 * Constructs a BoundingBox from its edges.
+	 *
+	 * @requires minLatitude <= maxLatitude && minLongitude <= maxLongitude
+	 * @effects constructs a BoundingBox with the given edges, in millionths of
+	 *          degrees.
+	 **/
+	public BoundingBox(int minLatitude, int minLongitude, int maxLatitude, int maxLongitude) {
+		this.minLatitude = minLatitude;
+		this.minLongitude = minLongitude;
+		this.maxLatitude = maxLatitude;
+		this.maxLongitude = maxLongitude;
+		this.checkRep();
+	}
+
+	/**
+	 * Constructs the BoundingBox of two GeoPoints.
+	 *
+	 * @requires p1 != null && p2 != null
+	 * @effects constructs the smallest BoundingBox containing p1 and p2.
+	 **/
+	public BoundingBox(GeoPoint p1, GeoPoint p2) {
+		this(Math.min(p1.getLatitude(), p2.getLatitude()), Math.min(p1.getLongitude(), p2.getLongitude()),
+				Math.max(p1.getLatitude(), p2.getLatitude()), Math.max(p1.getLongitude(), p2.getLongitude()));
+	}
+
+	/**
+	 * Returns the southern edge of this.
+	 *
+	 * @return the minimal latitude of this, in millionths of degrees.
+	 **/
+	public int getMinLatitude() {
+		return this.minLatitude;
+	}
+
+	/**
+	 * Returns the western edge of this.
+	 *
+	 * @return the minimal longitude of this, in millionths of degrees.
+	 **/
+	public int getMinLongitude() {
+		return this.minLongitude;
+	}
+
+	/**
+	 * Returns the northern edge of this.
+	 *
+	 * @return the maximal latitude of this, in millionths of degrees.
+	 **/
+	public int getMaxLatitude() {
+		return this.maxLatitude;
+	}
+
+	/**
+	 * Returns the eastern edge of this.
+	 *
+	 * @return the maximal longitude of this, in millionths of degrees.
+	 **/
+	public int getMaxLongitude() {
+		return this.maxLongitude;
+	}
+
+	/**
+	 * Checks whether a GeoPoint lies inside this, edges included.
+	 *
+	 * @requires gp != null
+	 * @return true iff gp lies inside this.
+	 **/
+	public boolean contains(GeoPoint gp) {
+		return gp.getLatitude() >= this.minLatitude && gp.getLatitude() <= this.maxLatitude
+				&& gp.getLongitude() >= this.minLongitude && gp.getLongitude() <= this.maxLongitude;
+	}
+
+	/**
+	 * Checks whether this and another BoundingBox overlap, edges included.
+	 *
+	 * @requires box != null
+	 * @return true iff this and box have at least one point in common.
+	 **/
+	public boolean intersects(BoundingBox box) {
+		return box.minLatitude <= this.maxLatitude && box.maxLatitude >= this.minLatitude
+				&& box.minLongitude <= this.maxLongitude && box.maxLongitude >= this.minLongitude;
+	}
+
+	/**
+	 * Returns the smallest BoundingBox containing this and a GeoPoint.
+	 *
+	 * @requires gp != null
+	 * @return this if gp lies inside this, otherwise a new BoundingBox
+	 *         containing both this and gp.
+	 **/
+	public BoundingBox extend(GeoPoint gp) {
+		if (this.contains(gp)) {
+			return this;
+		}
+		return new BoundingBox(Math.min(this.minLatitude, gp.getLatitude()),
+				Math.min(this.minLongitude, gp.getLongitude()), Math.max(this.maxLatitude, gp.getLatitude()),
+				Math.max(this.maxLongitude, gp.getLongitude()));
+	}
+
+	/**
+	 * Returns the smallest BoundingBox containing this and another
+	 * BoundingBox.
+	 *
+	 * @requires box != null
+	 * @return a BoundingBox containing both this and box.
+	 **/
+	public BoundingBox union(BoundingBox box) {
+		if (box.minLatitude >= this.minLatitude && box.maxLatitude <= this.maxLatitude
+				&& box.minLongitude >= this.minLongitude && box.maxLongitude <= this.maxLongitude) {
+			return this;
+		}
+		return new BoundingBox(Math.min(this.minLatitude, box.minLatitude),
+				Math.min(this.minLongitude, box.minLongitude), Math.max(this.maxLatitude, box.maxLatitude),
+				Math.max(this.maxLongitude, box.maxLongitude));
+	}
+
+	/**
+	 * Compares the specified Object with this BoundingBox for equality.
+	 *
+	 * @return o != null && (o instanceof BoundingBox) && o and this have the
+	 *         same edges.
+	 **/
+	public boolean equals(Object o) {
+		if (!(o instanceof BoundingBox)) {
+			return false;
+		}
+		BoundingBox box = (BoundingBox) o;
+		return box.minLatitude == this.minLatitude && box.minLongitude == this.minLongitude
+				&& box.maxLatitude == this.maxLatitude && box.maxLongitude == this.maxLongitude;
+	}
+
+	/**
+	 * Returns a hash code value for this BoundingBox.
+	 *
+	 * @return a hash code value for this BoundingBox.
+	 **/
+	public int hashCode() {
+		int hashcode = 11;
+		hashcode = 37 * hashcode + this.minLatitude;
+		hashcode = 37 * hashcode + this.minLongitude;
+		hashcode = 37 * hashcode + this.maxLatitude;
+		hashcode = 37 * hashcode + this.maxLongitude;
+		return hashcode;
+	}
+
+	/**
+	 * Returns a string representation of this BoundingBox.
+	 *
+	 * @return a string representation of this BoundingBox.
+	 **/
+	public String toString() {
+		return "[(" + this.minLatitude + "," + this.minLongitude + "),(" + this.maxLatitude + "," + this.maxLongitude
+				+ ")]";
+	}
+
+	private void checkRep() {
+		assert (this.minLatitude <= this.maxLatitude) : "BoundingBox's latitudes are reversed";
+		assert (this.minLongitude <= this.maxLongitude) : "BoundingBox's longitudes are reversed";
+	}
+}
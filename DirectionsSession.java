@@ -0,0 +1,167 @@
+package homework1;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * A DirectionsSession keeps the directions for a growing Route up to date.
+ * It remembers every line it has formatted, together with the GeoFeature and
+ * the incoming heading it was formatted from, and when it is updated with a
+ * longer Route it formats again only the lines whose feature or incoming
+ * heading changed.
+ * <p>
+ * Appending a segment to a Route changes at most its last feature: it either
+ * extends it, or completes it and starts a new one. So updating a session
+ * with a Route grown from the previous one by addSegment() formats only one
+ * or two lines, whatever the length of the route. The completed features of
+ * such routes are shared, so a route is recognized as grown from the
+ * previous one in constant time, by the identity of its last feature that was
+ * already completed; any other route is compared line by line from its start.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   formatter : RouteFormatter  // the formatter of the directions
+ *   heading : angle             // the initial heading of the directions
+ *   route : Route               // the route last given to update(), or null
+ * </pre>
+ * DirectionsSessions are not safe for use by multiple threads.
+ */
+public class DirectionsSession {
+
+	private final RouteFormatter formatter;
+	private final double heading;
+	private Route route;
+
+	// text holds the directions for route; lines.get(i) describes its i'th
+	// line, formatted from the i'th feature of route
+	private final StringBuilder text = new StringBuilder();
+	private final ArrayList<Line> lines = new ArrayList<Line>();
+
+	private static final class Line {
+		final GeoFeature feature;
+		final double heading;	// the incoming heading
+		final int offset;		// the index in text of the first character
+
+		Line(GeoFeature feature, double heading, int offset) {
+			this.feature = feature;
+			this.heading = heading;
+			this.offset = offset;
+		}
+	}
+
+	/**
+	 * Constructs a new DirectionsSession.
+	 * @requires formatter != null && 0 <= heading < 360
+	 * @effects Constructs a new DirectionsSession with no route, whose
+	 * 			directions are computed by formatter starting at heading.
+	 */
+	public DirectionsSession(RouteFormatter formatter, double heading) {
+		this.formatter = formatter;
+		this.heading = heading;
+	}
+
+	/**
+	 * Brings the directions up to date with a route.
+	 * @requires route != null
+	 * @modifies this
+	 * @effects this.route = route
+	 * @return the index of the first line of getDirections() that changed,
+	 * 		   which is getLineCount() if none changed.
+	 */
+	public int update(Route route) {
+		int count = route.getFeatureCount();
+		// lines before the last one that route may have completed are kept
+		// without being compared, if route was grown from this.route
+		int kept = Math.max(Math.min(this.lines.size(), count) - 1, 0);
+		if (kept > 0 && this.lines.get(kept - 1).feature != route.getGeoFeature(kept - 1)) {
+			kept = 0;
+		}
+		double incoming = (kept == 0) ? this.heading : route.getGeoFeature(kept - 1).getEndHeading();
+		while (kept < Math.min(this.lines.size(), count)) {
+			Line line = this.lines.get(kept);
+			GeoFeature gf = route.getGeoFeature(kept);
+			if (line.feature != gf || line.heading != incoming) {
+				break;
+			}
+			incoming = gf.getEndHeading();
+			kept++;
+		}
+
+		int changed = kept;
+		if (changed < this.lines.size()) {
+			this.text.setLength(this.lines.get(changed).offset);
+			this.lines.subList(changed, this.lines.size()).clear();
+		}
+		double changedHeading = incoming;
+		StringBuilderAction.perform(() -> this.appendLines(route, changed, changedHeading));
+		this.route = route;
+		return changed;
+	}
+
+	// formats the lines of route from the from'th one on, whose incoming
+	// heading is heading
+	private void appendLines(Route route, int from, double heading) throws IOException {
+		for (int i = from; i < route.getFeatureCount(); i++) {
+			GeoFeature gf = route.getGeoFeature(i);
+			this.lines.add(new Line(gf, heading, this.text.length()));
+			RouteFormatter.Turn turn = RouteFormatter.getTurn(heading, gf.getStartHeading());
+			this.formatter.appendLine(gf, heading, turn, this.text);
+			heading = gf.getEndHeading();
+		}
+	}
+
+	/**
+	 * Returns the route of this.
+	 * @return this.route
+	 */
+	public Route getRoute() {
+		return this.route;
+	}
+
+	/**
+	 * Returns the number of lines of the directions.
+	 * @return the number of features of this.route, or 0 if it is null.
+	 */
+	public int getLineCount() {
+		return this.lines.size();
+	}
+
+	/**
+	 * Returns the directions.
+	 * @return formatter.computeDirections(route, heading), or the empty
+	 * 		   String if route is null.
+	 */
+	public String getDirections() {
+		return this.text.toString();
+	}
+
+	/**
+	 * Returns the directions from a given line on.
+	 * @requires 0 <= line <= getLineCount()
+	 * @return getDirections().substring(getLineOffset(line))
+	 */
+	public String getDirections(int line) {
+		return this.text.substring(this.getLineOffset(line));
+	}
+
+	/**
+	 * Returns a single line of the directions.
+	 * @requires 0 <= line < getLineCount()
+	 * @return the newline-terminated line'th line of getDirections().
+	 */
+	public String getLine(int line) {
+		int end = (line + 1 < this.lines.size()) ? this.lines.get(line + 1).offset : this.text.length();
+		return this.text.substring(this.lines.get(line).offset, end);
+	}
+
+	/**
+	 * Returns the position of a line in the directions.
+	 * @requires 0 <= line <= getLineCount()
+	 * @return the index in getDirections() of the first character of the
+	 * 		   line'th line, or getDirections().length() if line =
+	 * 		   getLineCount().
+	 */
+	public int getLineOffset(int line) {
+		return (line == this.lines.size()) ? this.text.length() : this.lines.get(line).offset;
+	}
+}
@@ -0,0 +1,130 @@
+package homework1;
+
+import java.io.IOException;
+import java.util.Random;
+
+public class DirectionsSessionTest {
+
+	// a DrivingRouteFormatter that counts the lines it formats
+	private static class CountingFormatter extends DrivingRouteFormatter {
+		int lines;
+
+		protected void appendLine(GeoFeature geoFeature, double origHeading, Turn turn, Appendable out)
+				throws IOException {
+			this.lines++;
+			super.appendLine(geoFeature, origHeading, turn, out);
+		}
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	// a random walk that often continues on the same street
+	private static Route randomRoute(Random random, int segments) {
+		GeoPoint p = new GeoPoint(32780000, 35010000);
+		Route route = null;
+		int street = 0;
+		for (int i = 0; i < segments; i++) {
+			if (random.nextInt(3) == 0) {
+				street++;
+			}
+			GeoPoint q = new GeoPoint(p.getLatitude() + random.nextInt(2001) - 1000,
+									  p.getLongitude() + random.nextInt(2001) - 1000);
+			GeoSegment gs = new GeoSegment("Street " + street, p, q);
+			route = (route == null) ? new Route(gs) : route.addSegment(gs);
+			p = q;
+		}
+		return route;
+	}
+
+
+  	public void test() {
+  		Random random = new Random(23);
+  		CountingFormatter formatter = new CountingFormatter();
+  		DirectionsSession session = new DirectionsSession(formatter, 90);
+  		WalkingRouteFormatter walking = new WalkingRouteFormatter();
+  		DirectionsSession walkingSession = new DirectionsSession(walking, 90);
+
+  		show("construction");
+  		show("New session has no directions",
+  			session.getRoute() == null && session.getLineCount() == 0 && session.getDirections().equals(""));
+
+  		show("update() with a growing route");
+  		boolean same = true;
+  		boolean incremental = true;
+  		boolean tail = true;
+  		String shown = "";
+  		GeoPoint p = new GeoPoint(32780000, 35010000);
+  		Route route = null;
+  		int street = 0;
+  		for (int i = 0; i < 300; i++) {
+  			if (random.nextInt(3) == 0) {
+  				street++;
+  			}
+  			GeoPoint q = new GeoPoint(p.getLatitude() + random.nextInt(2001) - 1000,
+  									  p.getLongitude() + random.nextInt(2001) - 1000);
+  			GeoSegment gs = new GeoSegment("Street " + street, p, q);
+  			route = (route == null) ? new Route(gs) : route.addSegment(gs);
+  			p = q;
+
+  			int before = formatter.lines;
+  			int changed = session.update(route);
+  			walkingSession.update(route);
+  			incremental &= formatter.lines - before <= 2;
+  			tail &= changed >= route.getFeatureCount() - 2;
+  			shown = shown.substring(0, session.getLineOffset(changed))
+  				+ session.getDirections(changed);
+  			same &= session.getDirections().equals(new DrivingRouteFormatter().computeDirections(route, 90))
+  				&& walkingSession.getDirections().equals(walking.computeDirections(route, 90))
+  				&& session.getRoute() == route;
+  		}
+  		show("Directions match computeDirections()", same);
+  		show("Each append formats at most two lines", incremental);
+  		show("Only the tail changes", tail);
+  		show("Replacing the changed lines gives the directions", shown.equals(session.getDirections()));
+  		same = session.getLineCount() == route.getFeatureCount();
+  		StringBuilder lines = new StringBuilder();
+  		for (int i = 0; i < session.getLineCount(); i++) {
+  			lines.append(session.getLine(i));
+  		}
+  		show("Lines make up the directions", same && lines.toString().equals(session.getDirections()));
+
+  		show("update() with other routes");
+  		int before = formatter.lines;
+  		show("Same route changes nothing",
+  			session.update(route) == session.getLineCount() && formatter.lines == before);
+  		Route other = randomRoute(random, 50);
+  		session.update(other);
+  		show("Unrelated route is formatted from scratch",
+  			session.getDirections().equals(new DrivingRouteFormatter().computeDirections(other, 90)));
+  		Route simplified = other.simplify(0.05);
+  		session.update(simplified);
+  		show("Simplified route is formatted correctly",
+  			session.getDirections().equals(new DrivingRouteFormatter().computeDirections(simplified, 90)));
+  		Route shorter = randomRoute(new Random(5), 3);
+  		Route longer = randomRoute(new Random(5), 40);
+  		session.update(longer);
+  		session.update(shorter);
+  		show("Shorter route is formatted correctly",
+  			session.getDirections().equals(new DrivingRouteFormatter().computeDirections(shorter, 90)));
+  	}
+
+
+	public static void main(String[] args) {
+		DirectionsSessionTest directionsSessionTest = new DirectionsSessionTest();
+		directionsSessionTest.test();
+	}
+}
@@ -0,0 +1,147 @@
+package homework1;
+
+/**
+ * A DistanceModel knows how to compute the distance between two GeoPoints.
+ * <p>
+ * <tt>FLAT</tt> is the "flat earth", near the Technion approximation used by
+ * <tt>GeoPoint.distanceTo()</tt>. It is only accurate close to Haifa.
+ * <tt>EQUIRECTANGULAR</tt> scales longitude differences by the cosine of the
+ * mean latitude and stays accurate for short distances at any latitude,
+ * including across the antimeridian.
+ * <tt>HAVERSINE</tt> computes the great-circle distance on a spherical earth
+ * and is accurate for any pair of points.
+ * <p>
+ * The cosine of a latitude is looked up in a table of 0.01 degree bands and
+ * interpolated linearly, and for nearby points the remaining sine and
+ * arcsine terms are evaluated with short Taylor series, so that the accurate
+ * models avoid calling <tt>Math.cos</tt>, <tt>Math.sin</tt> and
+ * <tt>Math.asin</tt> for typical route segments. DistanceModelBenchmark
+ * measures the cost of each model.
+ */
+public enum DistanceModel {
+
+	/**
+	 * The flat-surface, near the Technion approximation.
+	 */
+	FLAT {
+		public double distance(GeoPoint p1, GeoPoint p2) {
+			return p1.distanceTo(p2);
+		}
+	},
+
+	/**
+	 * The equirectangular projection, scaled by the cosine of the mean
+	 * latitude of the two points.
+	 */
+	EQUIRECTANGULAR {
+		public double distance(GeoPoint p1, GeoPoint p2) {
+			double x = longitudeDiff(p1, p2)
+					* cosLatitude((int) (((long) p1.getLatitude() + p2.getLatitude()) / 2));
+			double y = p2.getLatitude() - (double) p1.getLatitude();
+			return KM_PER_MILLIONTH_OF_DEGREE * Math.sqrt(x * x + y * y);
+		}
+	},
+
+	/**
+	 * The great-circle distance on a spherical earth.
+	 */
+	HAVERSINE {
+		public double distance(GeoPoint p1, GeoPoint p2) {
+			double sinHalfLat = sinHalf(p2.getLatitude() - (double) p1.getLatitude());
+			double sinHalfLon = sinHalf(longitudeDiff(p1, p2));
+			double a = sinHalfLat * sinHalfLat
+					+ cosLatitude(p1.getLatitude()) * cosLatitude(p2.getLatitude()) * sinHalfLon * sinHalfLon;
+			return 2 * EARTH_RADIUS_KM * asin(Math.sqrt(Math.min(a, 1.0)));
+		}
+	};
+
+	/**
+	 * Mean radius of the earth, in kilometers.
+	 */
+	public static final double EARTH_RADIUS_KM = 6371.0088;
+
+	private static final double RADIANS_PER_MILLIONTH_OF_DEGREE = Math.PI / 180 / GeoPoint.MILLIONTHS_OF_DEGREES;
+
+	private static final double KM_PER_MILLIONTH_OF_DEGREE = EARTH_RADIUS_KM * RADIANS_PER_MILLIONTH_OF_DEGREE;
+
+	// width of a latitude band of COS_TABLE, in millionths of degrees
+	private static final int BAND = 10000;
+
+	// COS_TABLE[i] = cos(MIN_LATITUDE + i * BAND)
+	private static final double[] COS_TABLE = new double[(GeoPoint.MAX_LATITUDE - GeoPoint.MIN_LATITUDE) / BAND + 2];
+
+	// a whole turn, in millionths of degrees
+	private static final double FULL_TURN = 360 * GeoPoint.MILLIONTHS_OF_DEGREES;
+
+	// arguments below this many radians are evaluated with Taylor series
+	private static final double SMALL_ANGLE = 0.1;
+
+	static {
+		for (int i = 0; i < COS_TABLE.length; i++) {
+			COS_TABLE[i] = Math.cos(((long) GeoPoint.MIN_LATITUDE + (long) i * BAND) * RADIANS_PER_MILLIONTH_OF_DEGREE);
+		}
+	}
+
+	/**
+	 * Computes the distance between GeoPoints according to this model.
+	 *
+	 * @requires p1 != null && p2 != null
+	 * @return the distance from p1 to p2, in kilometers.
+	 **/
+	public abstract double distance(GeoPoint p1, GeoPoint p2);
+
+	/**
+	 * Returns the cosine of a latitude, interpolated from COS_TABLE.
+	 *
+	 * @requires MIN_LATITUDE <= latitude <= MAX_LATITUDE
+	 **/
+	private static double cosLatitude(int latitude) {
+		int offset = latitude - GeoPoint.MIN_LATITUDE;
+		int band = offset / BAND;
+		double t = (offset - band * BAND) * (1.0 / BAND);
+		return COS_TABLE[band] + t * (COS_TABLE[band + 1] - COS_TABLE[band]);
+	}
+
+	/**
+	 * Returns the difference between the longitudes of two points, in
+	 * millionths of degrees, the short way around the earth.
+	 *
+	 * @return p2.longitude - p1.longitude, shifted by a whole turn into
+	 *         [-180, 180] degrees.
+	 **/
+	private static double longitudeDiff(GeoPoint p1, GeoPoint p2) {
+		double d = p2.getLongitude() - (double) p1.getLongitude();
+		if (d > GeoPoint.MAX_LONGITUDE) {
+			return d - FULL_TURN;
+		}
+		if (d < GeoPoint.MIN_LONGITUDE) {
+			return d + FULL_TURN;
+		}
+		return d;
+	}
+
+	/**
+	 * Returns sin(d / 2) for an angle d given in millionths of degrees.
+	 **/
+	private static double sinHalf(double d) {
+		double h = d * (RADIANS_PER_MILLIONTH_OF_DEGREE / 2);
+		if (Math.abs(h) >= SMALL_ANGLE) {
+			return Math.sin(h);
+		}
+		double h2 = h * h;
+		return h * (1 - h2 * (1.0 / 6) * (1 - h2 * (1.0 / 20)));
+	}
+
+	/**
+	 * Returns asin(s).
+	 *
+	 * @requires 0 <= s <= 1
+	 **/
+	private static double asin(double s) {
+		if (s >= SMALL_ANGLE) {
+			return Math.asin(s);
+		}
+		double s2 = s * s;
+		return s * (1 + s2 * (1.0 / 6 + s2 * (3.0 / 40 + s2 * (5.0 / 112))));
+	}
+}
@@ -0,0 +1,62 @@
+package homework1;
+
+import java.util.Random;
+
+/**
+ * Measures the cost of computing a distance with each DistanceModel.
+ * <p>
+ * Run with <tt>java homework1.DistanceModelBenchmark [pairs] [rounds]</tt>.
+ * Prints the average time, in nanoseconds, of a single distance computation
+ * for every model, over pairs of nearby points spread across all latitudes.
+ */
+public class DistanceModelBenchmark {
+
+	private final GeoPoint[] from;
+	private final GeoPoint[] to;
+
+	public DistanceModelBenchmark(int pairs) {
+		Random random = new Random(46271);
+		from = new GeoPoint[pairs];
+		to = new GeoPoint[pairs];
+		for (int i = 0; i < pairs; i++) {
+			int lat = random.nextInt(170000000) - 85000000;
+			int lon = random.nextInt(359000000) - 179500000;
+			from[i] = new GeoPoint(lat, lon);
+			to[i] = new GeoPoint(lat + random.nextInt(200000) - 100000, lon + random.nextInt(200000) - 100000);
+		}
+	}
+
+	// returns the sum of all distances, so the work cannot be optimized away
+	private double run(DistanceModel model) {
+		double sum = 0;
+		for (int i = 0; i < from.length; i++) {
+			sum += model.distance(from[i], to[i]);
+		}
+		return sum;
+	}
+
+	public void benchmark(int rounds) {
+		// warm up all models before measuring any of them
+		for (int r = 0; r < rounds; r++) {
+			for (DistanceModel model : DistanceModel.values()) {
+				run(model);
+			}
+		}
+		for (DistanceModel model : DistanceModel.values()) {
+			double sum = 0;
+			long start = System.nanoTime();
+			for (int r = 0; r < rounds; r++) {
+				sum += run(model);
+			}
+			long elapsed = System.nanoTime() - start;
+			System.out.printf("%-16s %6.2f ns/distance (checksum %.1f)%n", model,
+					(double) elapsed / ((long) rounds * from.length), sum);
+		}
+	}
+
+	public static void main(String[] args) {
+		int pairs = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+		int rounds = (args.length > 1) ? Integer.parseInt(args[1]) : 20;
+		new DistanceModelBenchmark(pairs).benchmark(rounds);
+	}
+}
@@ -0,0 +1,187 @@
+package homework1;
+
+import java.util.Iterator;
+import java.util.Random;
+
+public class DistanceModelTest {
+
+	// tolerance against the reference values, which use Math: relative, and
+	// absolute in kilometers for short distances
+	private static final double tolerance = 1e-6;
+	private static final double toleranceKm = 1e-5;
+
+	private static final double R = DistanceModel.EARTH_RADIUS_KM;
+
+
+	boolean same(double expected, double actual) {
+		return Math.abs(expected - actual) <= tolerance * expected + toleranceKm;
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	// the great-circle distance, computed with Math
+	private static double haversine(GeoPoint p1, GeoPoint p2) {
+		double lat1 = Math.toRadians(p1.getLatitude() / GeoPoint.MILLIONTHS_OF_DEGREES);
+		double lat2 = Math.toRadians(p2.getLatitude() / GeoPoint.MILLIONTHS_OF_DEGREES);
+		double dLat = lat2 - lat1;
+		double dLon = Math.toRadians((p2.getLongitude() - (double) p1.getLongitude()) / GeoPoint.MILLIONTHS_OF_DEGREES);
+		double a = Math.pow(Math.sin(dLat / 2), 2)
+			+ Math.cos(lat1) * Math.cos(lat2) * Math.pow(Math.sin(dLon / 2), 2);
+		return 2 * R * Math.asin(Math.sqrt(Math.min(a, 1.0)));
+	}
+
+
+	// the equirectangular distance, computed with Math
+	private static double equirectangular(GeoPoint p1, GeoPoint p2) {
+		double dLat = (p2.getLatitude() - (double) p1.getLatitude()) / GeoPoint.MILLIONTHS_OF_DEGREES;
+		double dLon = Math.IEEEremainder((p2.getLongitude() - (double) p1.getLongitude()) / GeoPoint.MILLIONTHS_OF_DEGREES, 360);
+		double meanLat = ((double) p1.getLatitude() + p2.getLatitude()) / 2 / GeoPoint.MILLIONTHS_OF_DEGREES;
+		double x = dLon * Math.cos(Math.toRadians(meanLat));
+		return R * Math.toRadians(Math.sqrt(x * x + dLat * dLat));
+	}
+
+
+	// a random point with its latitude in [minLat, maxLat) degrees
+	private static GeoPoint randomPoint(Random random, int minLat, int maxLat) {
+		return new GeoPoint(minLat * 1000000 + random.nextInt((maxLat - minLat) * 1000000),
+							random.nextInt(360000000) - 180000000);
+	}
+
+
+	// a random point within spread millionths of degrees of p
+	private static GeoPoint near(Random random, GeoPoint p, int spread) {
+		int lat = p.getLatitude() + random.nextInt(2 * spread + 1) - spread;
+		int lon = p.getLongitude() + random.nextInt(2 * spread + 1) - spread;
+		lat = Math.max(GeoPoint.MIN_LATITUDE, Math.min(GeoPoint.MAX_LATITUDE, lat));
+		lon = Math.max(GeoPoint.MIN_LONGITUDE, Math.min(GeoPoint.MAX_LONGITUDE, lon));
+		return new GeoPoint(lat, lon);
+	}
+
+
+	// checks both accurate models on pairs of points around the given
+	// latitudes, spread millionths of degrees apart
+	private boolean accurate(Random random, int minLat, int maxLat, int spread) {
+		boolean ok = true;
+		for (int i = 0; i < 2000; i++) {
+			GeoPoint p1 = randomPoint(random, minLat, maxLat);
+			GeoPoint p2 = near(random, p1, spread);
+			ok &= same(haversine(p1, p2), DistanceModel.HAVERSINE.distance(p1, p2));
+			ok &= same(equirectangular(p1, p2), DistanceModel.EQUIRECTANGULAR.distance(p1, p2));
+		}
+		return ok;
+	}
+
+
+  	public void test() {
+  		Random random = new Random(5);
+
+  		show("FLAT");
+  		boolean ok = true;
+  		for (int i = 0; i < 1000; i++) {
+  			GeoPoint p1 = randomPoint(random, 29, 34);
+  			GeoPoint p2 = near(random, p1, 100000);
+  			ok &= DistanceModel.FLAT.distance(p1, p2) == p1.distanceTo(p2);
+  		}
+  		show("Flat distance is GeoPoint.distanceTo()", ok);
+
+  		show("EQUIRECTANGULAR and HAVERSINE");
+  		show("Nearby points at low latitudes", accurate(random, -60, 60, 50000));
+  		show("Nearby points at high latitudes", accurate(random, 60, 90, 50000)
+  			&& accurate(random, -90, -60, 50000));
+  		show("Distant points, beyond the Taylor series", accurate(random, -90, 90, 20000000));
+  		ok = true;
+  		for (int i = 0; i < 2000; i++) {
+  			GeoPoint p1 = randomPoint(random, -90, 90);
+  			GeoPoint p2 = randomPoint(random, -90, 90);
+  			ok &= same(haversine(p1, p2), DistanceModel.HAVERSINE.distance(p1, p2));
+  		}
+  		show("Haversine between any two points", ok);
+
+  		show("Poles");
+  		GeoPoint north = new GeoPoint(GeoPoint.MAX_LATITUDE, 0);
+  		GeoPoint north2 = new GeoPoint(GeoPoint.MAX_LATITUDE, 100000000);
+  		GeoPoint south = new GeoPoint(GeoPoint.MIN_LATITUDE, 0);
+  		GeoPoint nearNorth = new GeoPoint(GeoPoint.MAX_LATITUDE - 10000, 45000000);
+  		show("Points at the pole are the same place",
+  			DistanceModel.HAVERSINE.distance(north, north2) < 1e-9
+  			&& DistanceModel.EQUIRECTANGULAR.distance(north, north2) < 1e-9);
+  		show("Pole to pole is half a circumference",
+  			same(Math.PI * R, DistanceModel.HAVERSINE.distance(north, south)));
+  		show("Near the pole",
+  			same(haversine(north, nearNorth), DistanceModel.HAVERSINE.distance(north, nearNorth))
+  			&& same(equirectangular(north, nearNorth), DistanceModel.EQUIRECTANGULAR.distance(north, nearNorth)));
+
+  		show("Antimeridian");
+  		GeoPoint west = new GeoPoint(-45000000, 179900000);
+  		GeoPoint east = new GeoPoint(-45000000, -179900000);
+  		double expected = haversine(west, east);
+  		show("Expected distance is about 15.7 km", Math.abs(expected - 15.72) < 0.01);
+  		show("Equirectangular crosses the short way",
+  			same(expected, DistanceModel.EQUIRECTANGULAR.distance(west, east))
+  			&& same(expected, DistanceModel.EQUIRECTANGULAR.distance(east, west)));
+  		show("Haversine crosses the short way",
+  			same(expected, DistanceModel.HAVERSINE.distance(west, east))
+  			&& same(expected, DistanceModel.HAVERSINE.distance(east, west)));
+  		ok = true;
+  		for (int i = 0; i < 2000; i++) {
+  			int lat = random.nextInt(170000000) - 85000000;
+  			GeoPoint p1 = new GeoPoint(lat, GeoPoint.MAX_LONGITUDE - random.nextInt(50000));
+  			GeoPoint p2 = new GeoPoint(lat + random.nextInt(100001) - 50000, GeoPoint.MIN_LONGITUDE + random.nextInt(50000));
+  			ok &= same(equirectangular(p1, p2), DistanceModel.EQUIRECTANGULAR.distance(p1, p2))
+  				&& same(haversine(p1, p2), DistanceModel.HAVERSINE.distance(p1, p2));
+  		}
+  		show("Random pairs across the antimeridian", ok);
+
+  		show("getLength(model)");
+  		GeoPoint p = new GeoPoint(69650000, 18950000);
+  		GeoFeature feature = null;
+  		Route route = null;
+  		for (int i = 0; i < 300; i++) {
+  			GeoPoint q = near(random, p, 2000);
+  			GeoSegment gs = new GeoSegment((i < 150) ? "Storgata" : "Strandgata", p, q);
+  			if (i < 150) {
+  				feature = (feature == null) ? new GeoFeature(gs) : feature.addSegment(gs);
+  			}
+  			route = (route == null) ? new Route(gs) : route.addSegment(gs);
+  			p = q;
+  		}
+  		ok = true;
+  		for (DistanceModel model : DistanceModel.values()) {
+  			double featureSum = 0;
+  			Iterator<GeoSegment> segments = feature.getGeoSegments();
+  			while (segments.hasNext()) {
+  				featureSum += segments.next().getLength(model);
+  			}
+  			double routeSum = 0;
+  			segments = route.getGeoSegments();
+  			while (segments.hasNext()) {
+  				routeSum += segments.next().getLength(model);
+  			}
+  			ok &= same(featureSum, feature.getLength(model)) && same(routeSum, route.getLength(model));
+  		}
+  		show("Feature and route lengths are the sums of their segments", ok);
+  		show("Flat lengths are the cached lengths",
+  			same(feature.getLength(), feature.getLength(DistanceModel.FLAT))
+  			&& same(route.getLength(), route.getLength(DistanceModel.FLAT)));
+  	}
+
+
+	public static void main(String[] args) {
+		DistanceModelTest distanceModelTest = new DistanceModelTest();
+		distanceModelTest.test();
+	}
+}
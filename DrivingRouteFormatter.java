@@ -1,6 +1,6 @@
 package homework1;
 
-import java.text.DecimalFormat;
+import java.io.IOException;
 
 /**
  * The DrivingDirections class creates a textual description of directions
@@ -22,21 +22,21 @@ import java.text.DecimalFormat;
  * the geographic feature. The length should be reported to tenth-of-a-
  * kilometer precision. Each line should be terminated by a newline and
  * should include no extra spaces other than those shown above.
+ * <p>
+ * DrivingRouteFormatters have no state and are safe for use by multiple
+ * threads.
  */
 public class DrivingRouteFormatter extends RouteFormatter {
   
   	/**
-     * Computes a single line of a multi-line directions String that
-     * represents the instructions for traversing a single geographic
-     * feature.
-     * @requires 0 <= origHeading < 360
-     * @param geoFeature the geographical feature to traverse.
-     * @param origHeading the initial heading.
-     * @return A newline-terminated <tt>String</tt> that gives
-     * 		   directions on how to traverse this geographical feature.<br>
-     * Calling <tt>computeLine</tt> with a GeoFeature instance and an
-     * initial heading should produce a newline-terminated String in the
-     * following form:
+     * Appends a single line of driving directions, for traversing a single
+     * geographic feature, to out, given the turn onto the feature.
+     * @requires geoFeature != null && out != null &&
+     * 			0 <= origHeading < 360 &&
+     * 			turn = getTurn(origHeading, geoFeature.startHeading)
+     * @modifies out
+     * @effects appends to out a newline-terminated line in the following
+     * 			form:
      * <p>
      * <tt>
      * Turn sharp left onto Hanita and go 1.4 kilometers.<br>
@@ -48,14 +48,14 @@ public class DrivingRouteFormatter extends RouteFormatter {
      * tenth-of-a-kilometer precision. The String should be terminated by a
      * newline and should include no extra spaces other than those shown
      * above.
-     **/
-  	public String computeLine(GeoFeature geoFeature, double origHeading) {
-  		
-  		String turnStr = this.getTurnString(origHeading, geoFeature.getStartHeading());
-		DecimalFormat format = new DecimalFormat();
-		format.applyPattern("#.#");
-		String distance_str = format.format(geoFeature.getLength());
-		return turnStr + " onto " + geoFeature.getName() + " and go " + distance_str + " kilometers.\n";
+     * @throws IOException if out throws IOException.
+     */
+  	protected void appendLine(GeoFeature geoFeature, double origHeading, Turn turn, Appendable out)
+  			throws IOException {
+  		out.append(this.getTurnString(turn))
+  			.append(" onto ").append(geoFeature.getName()).append(" and go ");
+  		FixedPointFormat.appendTenths(out, geoFeature.getLength());
+  		out.append(" kilometers.\n");
   	}
 
 }
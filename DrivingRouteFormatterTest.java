@@ -1,5 +1,8 @@
 package homework1;
 
+import java.io.IOException;
+import java.io.StringWriter;
+
 public class DrivingRouteFormatterTest {
 	
 	private DrivingRouteFormatter mDirections;
@@ -24,6 +27,17 @@ public class DrivingRouteFormatterTest {
 			System.out.println("Test passed correctly");
 		else
 			System.out.println("Test not passed correctly");
+
+		StringWriter out = new StringWriter();
+		try {
+			mDirections.computeDirections(mShortRoute, 0, out);
+		} catch (IOException e) {
+			out.write("IOException");
+		}
+		if (out.toString().equals(directions))
+			System.out.println("Streaming test passed correctly");
+		else
+			System.out.println("Streaming test not passed correctly");
 	}
   	
   	
@@ -0,0 +1,139 @@
+package homework1;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * FixedPointFormat writes the numbers of a line of directions: lengths to
+ * tenth-of-a-kilometer precision and whole numbers of minutes. It appends
+ * the digits straight into a caller-supplied Appendable, without creating a
+ * DecimalFormat or any intermediate String.
+ * <p>
+ * appendTenths produces exactly the output of a
+ * <tt>new DecimalFormat("#.#")</tt> in the default format locale: the value
+ * is rounded half-even by its exact binary value, a zero tenth is dropped,
+ * and the locale's decimal separator and digits are used. appendWhole
+ * produces exactly the output of <tt>String.valueOf(long)</tt>.
+ * <p>
+ * FixedPointFormat has no mutable state other than a cache of the default
+ * locale's symbols, and is safe for use by multiple threads.
+ */
+public final class FixedPointFormat {
+
+	// values from this on, negative values, NaN and infinities are formatted
+	// by a DecimalFormat
+	private static final double FAST_LIMIT = 1e9;
+
+	// below FAST_LIMIT, value * 10 is within 2e-6 of its exact value, so a
+	// fraction further than this from a half rounds the same either way
+	private static final double TIE_MARGIN = 1e-5;
+
+	private static final String PATTERN = "#.#";
+
+	// the symbols of the most recently used default format locale
+	private static volatile Symbols symbols;
+
+	private static final class Symbols {
+		final Locale locale;
+		final char zeroDigit;
+		final char decimalSeparator;
+
+		Symbols(Locale locale) {
+			DecimalFormatSymbols formatSymbols = DecimalFormatSymbols.getInstance(locale);
+			this.locale = locale;
+			this.zeroDigit = formatSymbols.getZeroDigit();
+			this.decimalSeparator = formatSymbols.getDecimalSeparator();
+		}
+	}
+
+	private FixedPointFormat() {
+	}
+
+	/**
+	 * Formats a value to tenth precision.
+	 *
+	 * @return new DecimalFormat("#.#").format(value)
+	 **/
+	public static String formatTenths(double value) {
+		StringBuilder text = new StringBuilder(12);
+		StringBuilderAction.perform(() -> appendTenths(text, value));
+		return text.toString();
+	}
+
+	/**
+	 * Appends a value formatted to tenth precision.
+	 *
+	 * @requires out != null
+	 * @modifies out
+	 * @effects appends new DecimalFormat("#.#").format(value) to out.
+	 * @throws IOException if out throws IOException.
+	 **/
+	public static void appendTenths(Appendable out, double value) throws IOException {
+		if (Double.doubleToRawLongBits(value) < 0 || !(value < FAST_LIMIT)) {
+			DecimalFormat format = new DecimalFormat();
+			format.applyPattern(PATTERN);
+			out.append(format.format(value));
+			return;
+		}
+		double scaled = value * 10;
+		double floor = Math.floor(scaled);
+		double fraction = scaled - floor;
+		long tenths;
+		if (Math.abs(fraction - 0.5) < TIE_MARGIN) {
+			tenths = new BigDecimal(value).setScale(1, RoundingMode.HALF_EVEN).unscaledValue().longValue();
+		} else {
+			tenths = (long) floor + ((fraction > 0.5) ? 1 : 0);
+		}
+		Symbols current = currentSymbols();
+		appendDigits(out, tenths / 10, current.zeroDigit);
+		if (tenths % 10 != 0) {
+			out.append(current.decimalSeparator);
+			out.append((char) (current.zeroDigit + tenths % 10));
+		}
+	}
+
+	/**
+	 * Appends a whole number.
+	 *
+	 * @requires out != null
+	 * @modifies out
+	 * @effects appends String.valueOf(value) to out.
+	 * @throws IOException if out throws IOException.
+	 **/
+	public static void appendWhole(Appendable out, long value) throws IOException {
+		if (value == Long.MIN_VALUE) {
+			out.append(String.valueOf(value));
+			return;
+		}
+		if (value < 0) {
+			out.append('-');
+			value = -value;
+		}
+		appendDigits(out, value, '0');
+	}
+
+	// appends the digits of value >= 0, without leading zeros
+	private static void appendDigits(Appendable out, long value, char zeroDigit) throws IOException {
+		long power = 1;
+		while (power <= value / 10) {
+			power *= 10;
+		}
+		for (; power > 0; power /= 10) {
+			out.append((char) (zeroDigit + (value / power) % 10));
+		}
+	}
+
+	private static Symbols currentSymbols() {
+		Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+		Symbols current = symbols;
+		if (current == null || !current.locale.equals(locale)) {
+			current = new Symbols(locale);
+			symbols = current;
+		}
+		return current;
+	}
+}
@@ -0,0 +1,114 @@
+package homework1;
+
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.Locale;
+import java.util.Random;
+
+public class FixedPointFormatTest {
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	private static String reference(double value) {
+		DecimalFormat format = new DecimalFormat();
+		format.applyPattern("#.#");
+		return format.format(value);
+	}
+
+
+	// returns the first value formatted differently from DecimalFormat, or null
+	private static String firstMismatch(double[] values) {
+		for (double value : values) {
+			if (!FixedPointFormat.formatTenths(value).equals(reference(value))) {
+				return value + ": " + FixedPointFormat.formatTenths(value) + " != " + reference(value);
+			}
+		}
+		return null;
+	}
+
+
+  	public void test() {
+  		Locale saved = Locale.getDefault();
+  		Locale.setDefault(Locale.US);
+
+  		show("formatTenths()");
+  		show("Zero is 0", FixedPointFormat.formatTenths(0).equals("0"));
+  		show("Zero tenth is dropped", FixedPointFormat.formatTenths(3.04).equals("3"));
+  		show("Fraction below one keeps the zero", FixedPointFormat.formatTenths(0.7).equals("0.7"));
+  		show("Exact tie rounds to even", FixedPointFormat.formatTenths(0.25).equals("0.2")
+  			&& FixedPointFormat.formatTenths(0.75).equals("0.8"));
+  		show("Tie is decided by the binary value", FixedPointFormat.formatTenths(0.35).equals("0.3")
+  			&& FixedPointFormat.formatTenths(0.05).equals("0.1"));
+  		show("Rounding carries into the whole part", FixedPointFormat.formatTenths(9.96).equals("10"));
+
+  		Random random = new Random(21);
+  		double[] values = new double[200000];
+  		for (int i = 0; i < values.length; i++) {
+  			switch (i % 4) {
+  			case 0:
+  				values[i] = random.nextDouble() * 100;
+  				break;
+  			case 1:
+  				// ties and their neighbours
+  				double tie = random.nextInt(1000000) / 10.0 + 0.05;
+  				values[i] = (random.nextBoolean()) ? tie : Math.nextAfter(tie, random.nextBoolean() ? 0 : 1e9);
+  				break;
+  			case 2:
+  				values[i] = random.nextInt(100000) / 100.0;
+  				break;
+  			default:
+  				values[i] = Math.exp(random.nextDouble() * 60 - 20);
+  			}
+  		}
+  		String mismatch = firstMismatch(values);
+  		show("Random values match DecimalFormat" + ((mismatch == null) ? "" : " (" + mismatch + ")"), mismatch == null);
+  		mismatch = firstMismatch(new double[] { -0.0, -0.04, -1.25, 1e9, 1e20, Double.NaN,
+  			Double.POSITIVE_INFINITY, Double.MIN_VALUE, Double.MAX_VALUE });
+  		show("Special values match DecimalFormat" + ((mismatch == null) ? "" : " (" + mismatch + ")"), mismatch == null);
+
+  		show("locales");
+  		Locale.setDefault(Locale.GERMANY);
+  		show("Decimal separator follows the locale", FixedPointFormat.formatTenths(1.25).equals("1,2"));
+  		Locale.setDefault(Locale.forLanguageTag("ar-EG"));
+  		mismatch = firstMismatch(new double[] { 0, 0.7, 1.25, 123.45 });
+  		show("Digits follow the locale" + ((mismatch == null) ? "" : " (" + mismatch + ")"), mismatch == null);
+  		Locale.setDefault(Locale.US);
+
+  		show("appendWhole()");
+  		StringBuilder text = new StringBuilder("go ");
+  		try {
+  			FixedPointFormat.appendWhole(text, 0);
+  			text.append(' ');
+  			FixedPointFormat.appendWhole(text, 27);
+  			text.append(' ');
+  			FixedPointFormat.appendWhole(text, -1000);
+  			text.append(' ');
+  			FixedPointFormat.appendWhole(text, Long.MIN_VALUE);
+  		} catch (IOException e) {
+  			text.append(e);
+  		}
+  		show("Whole numbers match String.valueOf",
+  			text.toString().equals("go 0 27 -1000 " + Long.MIN_VALUE));
+
+  		Locale.setDefault(saved);
+  	}
+
+
+	public static void main(String[] args) {
+		FixedPointFormatTest fixedPointFormatTest = new FixedPointFormatTest();
+		fixedPointFormatTest.test();
+	}
+}
@@ -1,6 +1,8 @@
 package homework1;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
 
 /**
@@ -38,12 +40,23 @@ import java.util.*;
  **/
 public class GeoFeature {
 	
-	private String nameFeature;
-	private GeoPoint start;
-	private GeoPoint end;
-	private double startHeading;
-	private double endHeading;
-	private final LinkedList<GeoSegment> segmentList;
+	private final String nameFeature;
+	// the id of nameFeature in StreetNames
+	private final int nameId;
+	private final GeoPoint start;
+	private final GeoPoint end;
+	private final double startHeading;
+	private final double endHeading;
+	// Features grown from each other by addSegment() share the storage of
+	// their common segments, so appending a segment does not copy the
+	// segments already in this feature.
+	private final PersistentArray<GeoSegment> segmentList;
+	// Running totals, computed once when the feature is built.
+	private final double length;
+	private final BoundingBox boundingBox;
+	// Hash code of the segments, in order, as List.hashCode() would compute
+	// it; extended by one segment at a time as the feature grows.
+	private final int hash;
 	// Implementation hint:
 	// When asked to return an Iterator, consider using the iterator() method
 	// in the List interface. Two nice classes that implement the List
@@ -68,16 +81,80 @@ public class GeoFeature {
      **/
   	public GeoFeature(GeoSegment gs) {
   		this.nameFeature        = gs.getName();
-  		segmentList = new LinkedList<GeoSegment>();
-  		this.segmentList.add(gs);
-  		this.start              = this.segmentList.getFirst().getP1();
-  		this.end		        = this.segmentList.getLast().getP2();
-  		this.startHeading	    = this.segmentList.getFirst().getHeading();
-  		this.endHeading	   		= this.segmentList.getLast().getHeading();
+  		this.nameId             = gs.getNameId();
+  		this.segmentList        = PersistentArray.of(gs);
+  		this.start              = gs.getP1();
+  		this.end		        = gs.getP2();
+  		this.startHeading	    = gs.getHeading();
+  		this.endHeading	   		= this.startHeading;
+  		this.length             = gs.getLength();
+  		this.boundingBox        = new BoundingBox(gs.getP1(), gs.getP2());
+  		this.hash               = extendHash(EMPTY_HASH, gs);
   		this.checkRep();
   		
   	}
-  
+
+
+  	/**
+  	 * Constructs a new GeoFeature made of prev followed by its last segment.
+  	 * @requires prev != null && segments = prev.segmentList + [gs]
+  	 **/
+  	GeoFeature(GeoFeature prev, PersistentArray<GeoSegment> segments) {
+  		GeoSegment gs           = segments.getLast();
+  		this.nameFeature        = prev.nameFeature;
+  		this.nameId             = prev.nameId;
+  		this.segmentList        = segments;
+  		this.start              = prev.start;
+  		this.end		        = gs.getP2();
+  		this.startHeading	    = prev.startHeading;
+  		this.endHeading	   		= gs.getHeading();
+  		this.length             = prev.length + gs.getLength();
+  		this.boundingBox        = prev.boundingBox.extend(gs.getP2());
+  		this.hash               = extendHash(prev.hash, gs);
+  		this.checkRep();
+  	}
+
+
+  	/**
+  	 * Constructs a new GeoFeature from segments whose running totals are
+  	 * already known.
+  	 * @requires segments.size() > 0 && the segments of segments have the same
+  	 *           name and are properly oriented && length is the sum, in
+  	 *           order, of their lengths && boundingBox is the BoundingBox of
+  	 *           their endpoints && hash is the result of extendHash()
+  	 *           applied to EMPTY_HASH and each of them in order
+  	 **/
+  	GeoFeature(PersistentArray<GeoSegment> segments, double length, BoundingBox boundingBox, int hash) {
+  		this.nameFeature        = segments.getFirst().getName();
+  		this.nameId             = segments.getFirst().getNameId();
+  		this.segmentList        = segments;
+  		this.start              = segments.getFirst().getP1();
+  		this.end		        = segments.getLast().getP2();
+  		this.startHeading	    = segments.getFirst().getHeading();
+  		this.endHeading	   		= segments.getLast().getHeading();
+  		this.length             = length;
+  		this.boundingBox        = boundingBox;
+  		this.hash               = hash;
+  		this.checkRep();
+  	}
+
+
+  	/**
+  	 * Hash code of a feature with no segments.
+  	 **/
+  	static final int EMPTY_HASH = 1;
+
+
+  	/**
+  	 * Extends the hash code of a sequence of segments by one segment.
+  	 * @requires gs != null
+  	 * @return the hash code of the segments [a..., gs], where hash is the
+  	 *         hash code of the segments [a...], as List.hashCode() computes it.
+  	 **/
+  	static int extendHash(int hash, GeoSegment gs) {
+  		return 31 * hash + gs.hashCode();
+  	}
+
 
  	/**
  	  * Returns name of geographic feature.
@@ -89,6 +166,16 @@ public class GeoFeature {
   	}
 
 
+  	/**
+  	 * Returns the id of the name of geographic feature.
+      * @return StreetNames.idOf(this.name)
+      * @see homework1.StreetNames
+      */
+  	public int getNameId() {
+  		return this.nameId;
+  	}
+
+
   	/**
   	 * Returns location of the start of the geographic feature.
      * @return location of the start of the geographic feature.
@@ -140,12 +227,44 @@ public class GeoFeature {
      */
   	public double getLength() {
   		this.checkRep();
-  		double sum = 0;
-  		for (int i = 0 ; i<this.segmentList.size() ; i++) { // probably a bug
-  			sum+= this.segmentList.get(i).getLength();
-  		}
+  		return this.length;
+  	}
+
+
+  	/**
+  	 * Returns total length of the geographic feature according to a
+  	 * distance model.
+  	 * @requires model != null
+     * @return total length of the geographic feature, in kilometers, where
+     *         the length of each segment is computed using model. Features
+     *         of many segments are summed in parallel, so the result may
+     *         differ from a sequential sum in its last bits.
+     * @see homework1.DistanceModel
+     */
+  	public double getLength(DistanceModel model) {
+  		this.checkRep();
+  		return this.segmentList.sum(gs -> gs.getLength(model));
+  	}
+
+
+  	/**
+  	 * Returns the number of segments in the geographic feature.
+     * @return the number of GeoSegments that make up this geographic feature.
+     */
+  	public int getSegmentCount() {
+  		this.checkRep();
+  		return this.segmentList.size();
+  	}
+
+
+  	/**
+  	 * Returns the bounding box of the geographic feature.
+     * @return the smallest BoundingBox containing every endpoint of the
+     *         segments of this geographic feature.
+     */
+  	public BoundingBox getBoundingBox() {
   		this.checkRep();
-  		return sum;
+  		return this.boundingBox;
   	}
 
 
@@ -160,14 +279,7 @@ public class GeoFeature {
      **/
   	public GeoFeature addSegment(GeoSegment gs) {
   		this.checkRep();
-  		GeoFeature newGeoFtr = new GeoFeature(gs);
-  		newGeoFtr.segmentList.clear();
-  		newGeoFtr.segmentList.addAll(this.segmentList);
-  		newGeoFtr.segmentList.add(gs);
-  		newGeoFtr.start              = this.segmentList.getFirst().getP1();
-  		newGeoFtr.startHeading	    = this.segmentList.getFirst().getHeading();
-  		newGeoFtr.end		        = newGeoFtr.segmentList.getLast().getP2();
-  		newGeoFtr.endHeading	    = newGeoFtr.segmentList.getLast().getHeading();
+  		GeoFeature newGeoFtr = new GeoFeature(this, this.segmentList.append(gs));
   		this.checkRep();
   		return newGeoFtr;
 
@@ -194,9 +306,146 @@ public class GeoFeature {
      */
   	public Iterator<GeoSegment> getGeoSegments() {
   		this.checkRep();
-  		LinkedList<GeoSegment> copy = (LinkedList<GeoSegment>)this.segmentList.clone();
+  		// segmentList is immutable and its Iterator does not support
+  		// remove(), so there is no need to copy it
+  		return this.segmentList.iterator();
+  	}
+
+
+  	/**
+     * Returns a sequential Stream of the GeoSegment objects of this
+     * GeoFeature, in order. The Stream reads the segments of this directly,
+     * without copying them, and reports the characteristics ORDERED, SIZED,
+     * SUBSIZED, IMMUTABLE and NONNULL.
+     * @return a Stream of the GeoSegments a[0], ..., a[n - 1] described by
+     *         getGeoSegments().
+     * @see homework1.GeoFeature#getGeoSegments()
+     */
+  	public Stream<GeoSegment> segments() {
   		this.checkRep();
-  		return copy.iterator();  		
+  		return this.segmentList.stream();
+  	}
+
+
+  	/**
+  	 * Returns a simplified copy of this GeoFeature, made of fewer segments
+  	 * that follow the same course.
+  	 * <p>
+  	 * The first and last segments are kept as they are, so the start, end,
+  	 * startHeading and endHeading, and therefore the turns into and out of
+  	 * the feature, do not change. The points between them are thinned with
+  	 * the Douglas-Peucker algorithm: a point is dropped when it lies within
+  	 * toleranceKm of the segment joining the points kept around it.
+  	 * Segments between two consecutive kept points are reused.
+     * @requires toleranceKm >= 0
+     * @return a GeoFeature r such that r.name = this.name &&
+     *         r.start = this.start && r.end = this.end &&
+     *         r.startHeading = this.startHeading &&
+     *         r.endHeading = this.endHeading, whose segments join a
+     *         subsequence of the points of this, and every point of this lies
+     *         within toleranceKm of r. If no point can be dropped, r is this.
+     **/
+  	public GeoFeature simplify(double toleranceKm) {
+  		this.checkRep();
+  		int n = this.segmentList.size();
+  		if (n <= 3) {
+  			return this;
+  		}
+  		// the chain of points p[1..n-1] runs from the end of the first
+  		// segment to the start of the last; p[i] is the start of segment i
+  		double[] x = new double[n];
+  		double[] y = new double[n];
+  		for (int i = 1; i < n; i++) {
+  			GeoPoint p = this.segmentList.get(i).getP1();
+  			x[i] = GeoPoint.projectLongitude(p.getLongitude());
+  			y[i] = GeoPoint.projectLatitude(p.getLatitude());
+  		}
+  		boolean[] keep = new boolean[n];
+  		int kept = douglasPeucker(x, y, 1, n - 1, toleranceKm * toleranceKm, keep);
+  		if (kept == n - 1) {
+  			return this;
+  		}
+
+  		GeoSegment[] segments = new GeoSegment[kept + 1];
+  		segments[0] = this.segmentList.getFirst();
+  		int count = 1;
+  		int from = 1;
+  		for (int to = 2; to < n; to++) {
+  			if (keep[to]) {
+  				// a merged segment keeps the heading engine of the first
+  				// segment it replaces
+  				GeoSegment replaced = this.segmentList.get(from);
+  				segments[count++] = (to == from + 1) ? replaced
+  						: new GeoSegment(this.nameFeature, replaced.getP1(),
+  										 this.segmentList.get(to).getP1(), replaced.getHeadingEngine());
+  				from = to;
+  			}
+  		}
+  		segments[count] = this.segmentList.getLast();
+
+  		double length = 0;
+  		int hash = EMPTY_HASH;
+  		BoundingBox box = new BoundingBox(this.start, segments[0].getP2());
+  		for (GeoSegment gs : segments) {
+  			length += gs.getLength();
+  			hash = extendHash(hash, gs);
+  			box = box.extend(gs.getP2());
+  		}
+  		return new GeoFeature(PersistentArray.<GeoSegment>wrap(segments), length, box, hash);
+  	}
+
+
+  	/**
+  	 * Marks the points of a chain kept by the Douglas-Peucker algorithm.
+  	 * The recursion is replaced by an explicit stack of ranges, so that
+  	 * chains of any length can be simplified.
+  	 * @requires 0 <= first < last < x.length && x.length == y.length ==
+  	 *           keep.length
+  	 * @modifies keep
+  	 * @effects sets keep[i] for the points first <= i <= last that are kept
+  	 *          when simplifying the chain (x[first], y[first]) ...
+  	 *          (x[last], y[last]) with a squared tolerance of tolerance2.
+  	 * @return the number of points kept.
+  	 **/
+  	static int douglasPeucker(double[] x, double[] y, int first, int last, double tolerance2,
+  							  boolean[] keep) {
+  		keep[first] = true;
+  		keep[last] = true;
+  		int kept = 2;
+  		int[] stack = new int[64];
+  		int top = 0;
+  		stack[top++] = first;
+  		stack[top++] = last;
+  		while (top > 0) {
+  			int to = stack[--top];
+  			int from = stack[--top];
+  			double farthest = tolerance2;
+  			int split = -1;
+  			for (int i = from + 1; i < to; i++) {
+  				double d = GeoSegment.squaredDistance(x[i], y[i], x[from], y[from], x[to], y[to]);
+  				if (d > farthest) {
+  					farthest = d;
+  					split = i;
+  				}
+  			}
+  			if (split < 0) {
+  				continue;
+  			}
+  			keep[split] = true;
+  			kept++;
+  			if (top + 4 > stack.length) {
+  				stack = Arrays.copyOf(stack, stack.length * 2);
+  			}
+  			if (split - from > 1) {
+  				stack[top++] = from;
+  				stack[top++] = split;
+  			}
+  			if (to - split > 1) {
+  				stack[top++] = split;
+  				stack[top++] = to;
+  			}
+  		}
+  		return kept;
   	}
 
 
@@ -207,9 +456,15 @@ public class GeoFeature {
      *          the same elements in the same order).
      **/
   	public boolean equals(Object o) {
+  		if (this == o) {
+  			return true;
+  		}
   		this.checkRep();
-  		if (o != null && o instanceof GeoFeature) {//probably a bug ("get(i))"
-  			if (this.segmentList.size() == ((GeoFeature)o).segmentList.size()) {
+  		if (o != null && o instanceof GeoFeature) {
+  			// equal features have equal hash codes, so most unequal ones are
+  			// told apart without walking their segments
+  			if (this.hash == ((GeoFeature)o).hash &&
+  				this.segmentList.size() == ((GeoFeature)o).segmentList.size()) {
   				for (int i = 0; i < this.segmentList.size() ; i++) {
   					if (this.segmentList.get(i).equals(((GeoFeature)o).segmentList.get(i))) {
   						continue;
@@ -230,12 +485,14 @@ public class GeoFeature {
 
 
   	/**
-     * Returns a hash code for this.
+     * Returns a hash code for this. The hash code depends only on the
+     * segments of this, in order, and is computed once, as segments are
+     * added.
      * @return a hash code for this.
      **/
   	public int hashCode() {
   		this.checkRep();
-    	return 1;
+    	return this.hash;
   	}
 
 
@@ -250,14 +507,14 @@ public class GeoFeature {
   	
   	
   	private void checkRep() {
-  		assert(this.segmentList.size() > 0) : "Empty segments list";
-  		GeoPoint start = null;
-  		for (GeoSegment gs : this.segmentList) {
-//  			assert(this.nameFeature.equals(gs.getName())); //check this line
-  			if (start != null) {
-  				assert(gs.getP1().equals(start)) : "None matching segments";
-  			}
-  			start = gs.getP2();
-  		}
+  		// Every feature is built by appending one segment to a feature
+  		// whose representation was already checked, so it is enough to
+  		// check the last joint.
+  		int size = this.segmentList.size();
+  		assert(size > 0) : "Empty segments list";
+  		assert(size == 1 || this.segmentList.get(size - 1).getP1().equals(this.segmentList.get(size - 2).getP2())) :
+  			"None matching segments";
+  		assert(this.segmentList.get(size - 1).getNameId() == this.nameId) :
+  			"Segment name does not match the feature";
   	}
 }
@@ -0,0 +1,206 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class GeoFeatureTest {
+
+	private static final String NAME = "Derech Haatzmaut";
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	// a segment of the feature from p to p moved by (dLat, dLon)
+	private static GeoSegment step(GeoPoint p, int dLat, int dLon) {
+		return new GeoSegment(NAME, p, new GeoPoint(p.getLatitude() + dLat, p.getLongitude() + dLon));
+	}
+
+
+	// returns expected followed by gs
+	private static List<GeoSegment> plus(List<GeoSegment> expected, GeoSegment gs) {
+		List<GeoSegment> list = new ArrayList<GeoSegment>(expected);
+		list.add(gs);
+		return list;
+	}
+
+
+	// the bounding box of the endpoints of segments, computed directly
+	private static BoundingBox boundingBoxOf(List<GeoSegment> segments) {
+		int minLat = Integer.MAX_VALUE, minLon = Integer.MAX_VALUE;
+		int maxLat = Integer.MIN_VALUE, maxLon = Integer.MIN_VALUE;
+		for (GeoSegment gs : segments) {
+			for (GeoPoint p : new GeoPoint[] { gs.getP1(), gs.getP2() }) {
+				minLat = Math.min(minLat, p.getLatitude());
+				minLon = Math.min(minLon, p.getLongitude());
+				maxLat = Math.max(maxLat, p.getLatitude());
+				maxLon = Math.max(maxLon, p.getLongitude());
+			}
+		}
+		return new BoundingBox(minLat, minLon, maxLat, maxLon);
+	}
+
+
+	// checks that f is made of exactly the expected segments, with the
+	// length, end and hash code they give
+	private static boolean hasSegments(GeoFeature f, List<GeoSegment> expected) {
+		List<GeoSegment> segments = new ArrayList<GeoSegment>();
+		Iterator<GeoSegment> it = f.getGeoSegments();
+		while (it.hasNext()) {
+			segments.add(it.next());
+		}
+		double length = 0;
+		for (GeoSegment gs : expected) {
+			length += gs.getLength();
+		}
+		GeoSegment last = expected.get(expected.size() - 1);
+		return segments.equals(expected) && f.getSegmentCount() == expected.size()
+			&& f.getLength() == length && f.hashCode() == expected.hashCode()
+			&& f.getStart().equals(expected.get(0).getP1()) && f.getEnd().equals(last.getP2())
+			&& f.getEndHeading() == last.getHeading();
+	}
+
+
+  	public void test() {
+  		show("addSegment() branching");
+  		// versions.get(k) has the first k + 1 segments of a chain heading
+  		// east; every version is kept
+  		List<GeoFeature> versions = new ArrayList<GeoFeature>();
+  		List<List<GeoSegment>> expected = new ArrayList<List<GeoSegment>>();
+  		GeoSegment first = step(new GeoPoint(32780000, 35000000), 0, 1000);
+  		versions.add(new GeoFeature(first));
+  		expected.add(plus(new ArrayList<GeoSegment>(), first));
+  		boolean ok = true;
+  		for (int k = 1; k < 40; k++) {
+  			GeoFeature f0 = versions.get(k - 1);
+  			List<GeoSegment> base = expected.get(k - 1);
+  			// f0 is the newest version, so the first branch may claim the
+  			// slot after it and the second one must not see it
+  			GeoSegment a = step(f0.getEnd(), 1000, 0);
+  			GeoSegment b = step(f0.getEnd(), -1000, 0);
+  			GeoFeature f1 = f0.addSegment(a);
+  			GeoFeature f2 = f0.addSegment(b);
+  			GeoSegment c = step(a.getP2(), 0, 1000);
+  			GeoSegment d = step(b.getP2(), 0, 1000);
+  			GeoFeature f3 = f1.addSegment(c);
+  			GeoFeature f4 = f2.addSegment(d);
+  			GeoFeature f5 = f2.addSegment(step(b.getP2(), -1000, 0));
+  			ok &= hasSegments(f0, base) && hasSegments(f1, plus(base, a)) && hasSegments(f2, plus(base, b))
+  				&& hasSegments(f3, plus(plus(base, a), c)) && hasSegments(f4, plus(plus(base, b), d))
+  				&& hasSegments(f5, plus(plus(base, b), step(b.getP2(), -1000, 0)))
+  				&& !f1.equals(f2) && !f3.equals(f4);
+  			// the chain continues from the newest version
+  			GeoSegment next = step(f0.getEnd(), 0, 1000);
+  			versions.add(f0.addSegment(next));
+  			expected.add(plus(base, next));
+  		}
+  		show("Branches from the newest version keep their own segments", ok);
+  		ok = true;
+  		for (int k = 0; k < versions.size(); k++) {
+  			GeoFeature old = versions.get(k);
+  			GeoSegment branch = step(old.getEnd(), 1000, 0);
+  			GeoFeature grown = old.addSegment(branch);
+  			ok &= hasSegments(grown, plus(expected.get(k), branch))
+  				&& hasSegments(grown.addSegment(step(branch.getP2(), 0, 1000)),
+  							   plus(plus(expected.get(k), branch), step(branch.getP2(), 0, 1000)));
+  		}
+  		show("Branches from older versions keep their own segments", ok);
+  		ok = true;
+  		for (int k = 0; k < versions.size(); k++) {
+  			ok &= hasSegments(versions.get(k), expected.get(k));
+  		}
+  		show("Every version is unchanged after branching", ok);
+
+  		show("addSegment() branching from several threads");
+  		final GeoFeature shared = versions.get(versions.size() - 1);
+  		final List<GeoSegment> sharedSegments = expected.get(expected.size() - 1);
+  		final boolean[] correct = { true, true, true, true };
+  		Thread[] threads = new Thread[correct.length];
+  		for (int t = 0; t < threads.length; t++) {
+  			final int id = t;
+  			threads[t] = new Thread(() -> {
+  				for (int i = 0; i < 2000; i++) {
+  					GeoSegment gs = step(shared.getEnd(), 1000 * (id + 1), i);
+  					GeoFeature f = shared.addSegment(gs);
+  					GeoSegment next = step(gs.getP2(), 0, 1000);
+  					correct[id] &= hasSegments(f, plus(sharedSegments, gs))
+  						&& hasSegments(f.addSegment(next), plus(plus(sharedSegments, gs), next));
+  				}
+  			});
+  			threads[t].start();
+  		}
+  		ok = true;
+  		for (int t = 0; t < threads.length; t++) {
+  			try {
+  				threads[t].join();
+  			} catch (InterruptedException e) {
+  				ok = false;
+  			}
+  			ok &= correct[t];
+  		}
+  		show("Concurrent branches keep their own segments", ok);
+  		show("Shared version is unchanged", hasSegments(shared, sharedSegments));
+
+  		show("Cached totals");
+  		Random random = new Random(8);
+  		GeoFeature grown = null;
+  		List<GeoSegment> grownSegments = new ArrayList<GeoSegment>();
+  		GeoPoint end = new GeoPoint(32780000, 35000000);
+  		boolean length = true, count = true, box = true, hash = true;
+  		for (int i = 0; i < 500; i++) {
+  			GeoSegment gs = step(end, random.nextInt(4001) - 2000, random.nextInt(4001) - 2000);
+  			grown = (grown == null) ? new GeoFeature(gs) : grown.addSegment(gs);
+  			grownSegments.add(gs);
+  			end = gs.getP2();
+  			double sum = 0;
+  			for (GeoSegment segment : grownSegments) {
+  				sum += segment.getLength();
+  			}
+  			length &= grown.getLength() == sum;
+  			count &= grown.getSegmentCount() == grownSegments.size();
+  			box &= grown.getBoundingBox().equals(boundingBoxOf(grownSegments));
+  			hash &= grown.hashCode() == grownSegments.hashCode();
+  		}
+  		show("Cached length is the sum of the segment lengths", length);
+  		show("Cached segment count is the number of segments", count);
+  		show("Cached bounding box holds exactly the segment endpoints", box);
+  		show("Cached hash code is the hash code of the segment list", hash);
+
+  		show("segments() and getGeoSegments()");
+  		ok = true;
+  		for (int k = 0; k < versions.size(); k++) {
+  			ok &= versions.get(k).segments().collect(Collectors.toList()).equals(expected.get(k));
+  		}
+  		show("segments() yields the segments of each version in order", ok);
+  		boolean thrown = false;
+  		try {
+  			Iterator<GeoSegment> it = shared.getGeoSegments();
+  			it.next();
+  			it.remove();
+  		} catch (UnsupportedOperationException e) {
+  			thrown = true;
+  		}
+  		show("Iterator rejects remove()", thrown && hasSegments(shared, sharedSegments));
+  	}
+
+
+	public static void main(String[] args) {
+		GeoFeatureTest geoFeatureTest = new GeoFeatureTest();
+		geoFeatureTest.test();
+	}
+}
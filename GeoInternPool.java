@@ -0,0 +1,155 @@
+package homework1;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A GeoInternPool canonicalizes GeoPoints and GeoSegments: given a point or
+ * segment, it returns a shared instance equal to it. Catalogues and routes
+ * loaded through the same pool then share the objects for the same
+ * intersections and roads instead of holding a copy per occurrence, and
+ * comparing shared objects for equality succeeds on reference identity
+ * without comparing their fields.
+ * <p>
+ * Using a pool is optional; GeoPoints and GeoSegments created without one
+ * behave exactly as before, and are still equal to pooled ones.
+ * <p>
+ * A pool is bounded: it is a fixed-size, two-way set-associative cache in
+ * which each point or segment may be held in either of two neighbouring
+ * slots, chosen by its hash code. A new object whose slots both hold other
+ * objects takes the first slot and moves its previous occupant to the
+ * second, evicting the older one, so a pool never holds more than its
+ * capacity, but two equal objects interned far apart may not end up shared.
+ * Objects evicted from a pool, or never used again, are garbage
+ * collected as usual.
+ * <p>
+ * GeoInternPools are safe for use by multiple threads without locking. A
+ * slot is written with release semantics and read with acquire semantics, so
+ * a thread that finds an object in a slot also sees everything its writer did
+ * before storing it: the fields set by the object's constructor, and the
+ * StreetNames entry of a segment's name. Two threads interning at once may
+ * overwrite each other's objects, which then just go unshared.
+ */
+public final class GeoInternPool {
+
+	private final AtomicReferenceArray<GeoPoint> points;
+	private final AtomicReferenceArray<GeoSegment> segments;
+	private final int mask;
+
+	/**
+	 * Constructs a new GeoInternPool.
+	 *
+	 * @requires capacity > 0
+	 * @effects Constructs an empty GeoInternPool holding up to capacity points
+	 *          and capacity segments, rounded up to a power of two.
+	 **/
+	public GeoInternPool(int capacity) {
+		int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+		size = Math.max(2, Math.min(size, 1 << 30));
+		this.points = new AtomicReferenceArray<GeoPoint>(size);
+		this.segments = new AtomicReferenceArray<GeoSegment>(size);
+		this.mask = size - 1;
+	}
+
+	/**
+	 * Returns the shared GeoPoint for a location, creating it if needed.
+	 *
+	 * @requires (latitude, longitude) is a valid GeoPoint
+	 * @return a GeoPoint gp such that gp.latitude = latitude &&
+	 *         gp.longitude = longitude
+	 **/
+	public GeoPoint point(int latitude, int longitude) {
+		long packed = GeoPoint.pack(latitude, longitude);
+		int slot = this.slot(packed);
+		GeoPoint shared = this.findPoint(slot, packed);
+		return (shared != null) ? shared : this.putPoint(slot, new GeoPoint(latitude, longitude));
+	}
+
+	/**
+	 * Returns the shared GeoPoint equal to a GeoPoint.
+	 *
+	 * @requires gp != null
+	 * @return a GeoPoint equal to gp, which is gp itself if no equal GeoPoint
+	 *         was in this.
+	 **/
+	public GeoPoint intern(GeoPoint gp) {
+		long packed = gp.toPacked();
+		int slot = this.slot(packed);
+		GeoPoint shared = this.findPoint(slot, packed);
+		return (shared != null) ? shared : this.putPoint(slot, gp);
+	}
+
+	/**
+	 * Returns the shared GeoSegment for a name and endpoints, creating it if
+	 * needed. The endpoints are interned first.
+	 *
+	 * @requires name != null && p1 != null && p2 != null
+	 * @return a GeoSegment equal to new GeoSegment(name, p1, p2), whose
+	 *         endpoints are shared by this.
+	 **/
+	public GeoSegment segment(String name, GeoPoint p1, GeoPoint p2) {
+		return this.intern(new GeoSegment(name, this.intern(p1), this.intern(p2)));
+	}
+
+	/**
+	 * Returns the shared GeoSegment equal to a GeoSegment.
+	 *
+	 * @requires gs != null
+	 * @return a GeoSegment equal to gs, which is gs itself if no equal
+	 *         GeoSegment was in this.
+	 **/
+	public GeoSegment intern(GeoSegment gs) {
+		int slot = this.slot((gs.getP1().toPacked() * 31 + gs.getP2().toPacked()) * 31 + gs.getNameId());
+		GeoSegment first = this.segments.getAcquire(slot);
+		if (first != null && first.equals(gs)) {
+			return first;
+		}
+		GeoSegment second = this.segments.getAcquire(slot + 1);
+		if (second != null && second.equals(gs)) {
+			return second;
+		}
+		if (first != null) {
+			this.segments.setRelease(slot + 1, first);
+		}
+		this.segments.setRelease(slot, gs);
+		return gs;
+	}
+
+	/**
+	 * Returns the capacity of this.
+	 *
+	 * @return the number of points, and the number of segments, that this
+	 *         can hold.
+	 **/
+	public int getCapacity() {
+		return this.points.length();
+	}
+
+	private GeoPoint findPoint(int slot, long packed) {
+		GeoPoint first = this.points.getAcquire(slot);
+		if (first != null && first.toPacked() == packed) {
+			return first;
+		}
+		GeoPoint second = this.points.getAcquire(slot + 1);
+		if (second != null && second.toPacked() == packed) {
+			return second;
+		}
+		return null;
+	}
+
+	private GeoPoint putPoint(int slot, GeoPoint gp) {
+		GeoPoint first = this.points.getAcquire(slot);
+		if (first != null) {
+			this.points.setRelease(slot + 1, first);
+		}
+		this.points.setRelease(slot, gp);
+		return gp;
+	}
+
+	// Maps a key to the first of a pair of slots. The keys are mixed here
+	// rather than taken from hashCode(), whose values collide for points on
+	// a regular grid.
+	private int slot(long key) {
+		key *= 0x9E3779B97F4A7C15L;
+		return (int) (key ^ (key >>> 32)) & this.mask & ~1;
+	}
+}
@@ -0,0 +1,114 @@
+package homework1;
+
+/**
+ * Measures the heap saved, and the equality checks sped up, by loading a road
+ * network through a GeoInternPool.
+ * <p>
+ * Run with <tt>java homework1.GeoInternPoolBenchmark [side] [rounds]</tt>.
+ * The network is a grid of side x side intersections, with a segment in each
+ * direction between neighbouring intersections, so every intersection is the
+ * endpoint of up to eight segments. Each load creates its GeoPoints afresh,
+ * as reading a catalogue would. Prints the retained heap per segment of a
+ * load with and without a pool, and the time to compare every segment of one
+ * load with its equal in a second load.
+ */
+public class GeoInternPoolBenchmark {
+
+	private static final int SPACING = 1000;	// millionths of degrees between intersections
+
+	private final int side;
+
+	public GeoInternPoolBenchmark(int side) {
+		this.side = side;
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 4; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private GeoPoint point(GeoInternPool pool, int row, int col) {
+		int lat = 32700000 + row * SPACING;
+		int lon = 35000000 + col * SPACING;
+		return (pool == null) ? new GeoPoint(lat, lon) : pool.point(lat, lon);
+	}
+
+	private GeoSegment segment(GeoInternPool pool, String name, GeoPoint p1, GeoPoint p2) {
+		return (pool == null) ? new GeoSegment(name, p1, p2) : pool.segment(name, p1, p2);
+	}
+
+	// loads the network, through pool if it is not null
+	private GeoSegment[] load(GeoInternPool pool) {
+		GeoSegment[] network = new GeoSegment[4 * side * (side - 1)];
+		int n = 0;
+		for (int row = 0; row < side; row++) {
+			String street = "Street " + row;
+			String avenue = "Avenue " + row;
+			for (int col = 0; col + 1 < side; col++) {
+				network[n++] = segment(pool, street, point(pool, row, col), point(pool, row, col + 1));
+				network[n++] = segment(pool, street, point(pool, row, col + 1), point(pool, row, col));
+				network[n++] = segment(pool, avenue, point(pool, col, row), point(pool, col + 1, row));
+				network[n++] = segment(pool, avenue, point(pool, col + 1, row), point(pool, col, row));
+			}
+		}
+		return network;
+	}
+
+	// returns the number of equal pairs, so the work cannot be optimized away
+	private static int compare(GeoSegment[] a, GeoSegment[] b) {
+		int equal = 0;
+		for (int i = 0; i < a.length; i++) {
+			if (a[i].equals(b[i])) {
+				equal++;
+			}
+		}
+		return equal;
+	}
+
+	private static void time(String label, GeoSegment[] a, GeoSegment[] b, int rounds) {
+		for (int r = 0; r < rounds; r++) {
+			compare(a, b);
+		}
+		int equal = 0;
+		long start = System.nanoTime();
+		for (int r = 0; r < rounds; r++) {
+			equal += compare(a, b);
+		}
+		long elapsed = System.nanoTime() - start;
+		int shared = 0;
+		for (int i = 0; i < a.length; i++) {
+			if (a[i] == b[i]) {
+				shared++;
+			}
+		}
+		System.out.printf("%-14s %6.2f ns/equals (%d equal, %d identical)%n", label,
+				(double) elapsed / ((long) rounds * a.length), equal / rounds, shared);
+	}
+
+	public void benchmark(int rounds) {
+		long base = usedHeap();
+		GeoSegment[] plain = load(null);
+		long plainBytes = usedHeap() - base;
+		System.out.printf("%-14s %6.1f bytes/segment (%d segments)%n", "no pool",
+				(double) plainBytes / plain.length, plain.length);
+
+		base = usedHeap();
+		GeoInternPool pool = new GeoInternPool(2 * plain.length);
+		GeoSegment[] pooled = load(pool);
+		long pooledBytes = usedHeap() - base;
+		System.out.printf("%-14s %6.1f bytes/segment (%d segments, pool of %d included)%n", "pool",
+				(double) pooledBytes / pooled.length, pooled.length, pool.getCapacity());
+
+		time("no pool", plain, load(null), rounds);
+		time("pool", pooled, load(pool), rounds);
+	}
+
+	public static void main(String[] args) {
+		int side = (args.length > 0) ? Integer.parseInt(args[0]) : 500;
+		int rounds = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+		new GeoInternPoolBenchmark(side).benchmark(rounds);
+	}
+}
@@ -0,0 +1,101 @@
+package homework1;
+
+public class GeoInternPoolTest {
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+  	public void test() {
+  		GeoInternPool pool = new GeoInternPool(1000);
+  		show("construction");
+  		show("Capacity is rounded up to a power of two", pool.getCapacity() == 1024);
+
+  		show("point()");
+  		GeoPoint gp = pool.point(32783098, 35014528);
+  		show("Point has the given coordinates",
+  			gp.getLatitude() == 32783098 && gp.getLongitude() == 35014528);
+  		show("Same coordinates give the same instance", pool.point(32783098, 35014528) == gp);
+  		show("Equal point is interned to the same instance",
+  			pool.intern(new GeoPoint(32783098, 35014528)) == gp);
+  		show("Different coordinates give a different point", !pool.point(32783098, 35014529).equals(gp));
+  		GeoPoint fresh = new GeoPoint(32790000, 35020000);
+  		show("New point is interned as itself", pool.intern(fresh) == fresh);
+
+  		show("segment()");
+  		GeoSegment gs = pool.segment("Hanita", new GeoPoint(32783098, 35014528), new GeoPoint(32792115, 35014528));
+  		show("Segment endpoints are shared", gs.getP1() == gp);
+  		show("Equal segment gives the same instance",
+  			pool.segment("Hanita", new GeoPoint(32783098, 35014528), new GeoPoint(32792115, 35014528)) == gs);
+  		show("Equal segment is interned to the same instance",
+  			pool.intern(new GeoSegment("Hanita", gp, new GeoPoint(32792115, 35014528))) == gs);
+  		show("Segment with another name is not shared",
+  			pool.segment("Hagalil", gp, new GeoPoint(32792115, 35014528)) != gs);
+  		show("Pooled segment equals an unpooled one",
+  			gs.equals(new GeoSegment("Hanita", new GeoPoint(32783098, 35014528), new GeoPoint(32792115, 35014528))));
+
+  		show("bounds");
+  		GeoInternPool tiny = new GeoInternPool(2);
+  		boolean ok = true;
+  		for (int i = 0; i < 100; i++) {
+  			GeoPoint p = tiny.point(32000000 + i, 35000000);
+  			ok &= p.getLatitude() == 32000000 + i;
+  		}
+  		show("Full pool still returns correct points", ok && tiny.getCapacity() == 2);
+
+  		show("Route over pooled segments");
+  		GeoPoint a = pool.point(32780000, 35010000);
+  		GeoPoint b = pool.point(32781000, 35010000);
+  		GeoPoint c = pool.point(32782000, 35010000);
+  		Route route = new Route(pool.segment("Hanita", a, b)).addSegment(pool.segment("Hanita", b, c));
+  		Route same = new Route(pool.segment("Hanita", a, b)).addSegment(pool.segment("Hanita", b, c));
+  		show("Routes built from the pool share their segments",
+  			route.getGeoSegments().next() == same.getGeoSegments().next() && route.getSegmentCount() == 2);
+  		show("Routes built from the pool are equal", route.equals(same) && route.hashCode() == same.hashCode());
+
+  		show("threads");
+  		final GeoInternPool shared = new GeoInternPool(64);
+  		final boolean[] correct = { true, true, true, true };
+  		Thread[] threads = new Thread[correct.length];
+  		for (int t = 0; t < threads.length; t++) {
+  			final int id = t;
+  			threads[t] = new Thread(() -> {
+  				for (int i = 0; i < 20000; i++) {
+  					int lat = 32000000 + (i % 100) * 1000;
+  					GeoSegment s = shared.segment("Thread street " + (i % 7),
+  						new GeoPoint(lat, 35000000), new GeoPoint(lat, 35001000));
+  					correct[id] &= s.getName().equals("Thread street " + (i % 7))
+  						&& s.getP1().getLatitude() == lat && s.getHeading() == 90.0 && s.getLength() > 0;
+  				}
+  			});
+  			threads[t].start();
+  		}
+  		ok = true;
+  		for (int t = 0; t < threads.length; t++) {
+  			try {
+  				threads[t].join();
+  			} catch (InterruptedException e) {
+  				ok = false;
+  			}
+  			ok &= correct[t];
+  		}
+  		show("Segments interned by several threads are complete", ok);
+  	}
+
+
+	public static void main(String[] args) {
+		GeoInternPoolTest geoInternPoolTest = new GeoInternPoolTest();
+		geoInternPoolTest.test();
+	}
+}
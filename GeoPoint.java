@@ -55,6 +55,15 @@ public class GeoPoint {
   	public static final double KM_PER_DEGREE_LONGITUDE = 93.681;
 
   	public static final double MILLIONTHS_OF_DEGREES = 1000000;
+
+  	/**
+  	 * Fixed-point scale used by squaredDistanceTo(): KM_PER_DEGREE_LATITUDE
+  	 * and KM_PER_DEGREE_LONGITUDE expressed in decimeters per
+  	 * SQUARED_DISTANCE_DIVISOR millionths of degrees.
+  	 */
+  	private static final long DM_PER_DEGREE_LATITUDE  = 110901;
+  	private static final long DM_PER_DEGREE_LONGITUDE = 93681;
+  	private static final long SQUARED_DISTANCE_DIVISOR = 100000;
   	
   	public static final double DEGREES__IN_CYRCLE  = 360.0;
   	
@@ -69,8 +78,17 @@ public class GeoPoint {
 	// using ints for your internal representation of GeoPoint. 
 
   	
-  	private Integer latitude;
-  	private Integer longitude;
+  	// Both coordinates are kept packed in a single primitive long: the
+  	// latitude in the high 32 bits and the longitude in the low 32 bits
+  	// (see pack()). This avoids boxing and keeps a GeoPoint down to a
+  	// single field.
+  	private final long packed;
+
+  	// The position of this in the "flat earth" projection, in kilometers
+  	// east (x) and north (y) of (0,0). Computed once so that distanceTo()
+  	// and headingTo() only need to subtract.
+  	private final double x;
+  	private final double y;
   	
   	/**
   	 * Constructs GeoPoint from a latitude and longitude.
@@ -82,19 +100,70 @@ public class GeoPoint {
      *          given in millionths of degrees.
    	 **/
   	public GeoPoint(int latitude, int longitude) {
-  		this.latitude  = (Integer) latitude;
-  		this.longitude = (Integer) longitude;
+  		this.packed = pack(latitude, longitude);
+  		this.x      = projectLongitude(longitude);
+  		this.y      = projectLatitude(latitude);
   		checkRep();
   	}
 
+
+  	/**
+  	 * Constructs GeoPoint from its packed representation.
+  	 * @requires packed was returned by toPacked() (or by pack()) for a
+  	 *           valid latitude and longitude.
+  	 * @return a GeoPoint gp such that gp.toPacked() == packed.
+  	 **/
+  	public static GeoPoint ofPacked(long packed) {
+  		return new GeoPoint(unpackLatitude(packed), unpackLongitude(packed));
+  	}
+
+
+  	/**
+  	 * Returns the packed representation of this. The packed value holds
+  	 * both coordinates exactly, so it can be stored in primitive arrays and
+  	 * turned back into an equal GeoPoint using ofPacked().
+  	 * @return a long holding this.latitude in its high 32 bits and
+  	 *         this.longitude in its low 32 bits.
+  	 **/
+  	public long toPacked() {
+  		return this.packed;
+  	}
+
+
+  	/**
+  	 * Packs a latitude and a longitude into a single long.
+  	 * @return a long holding latitude in its high 32 bits and longitude in
+  	 *         its low 32 bits.
+  	 **/
+  	public static long pack(int latitude, int longitude) {
+  		return ((long) latitude << 32) | (longitude & 0xFFFFFFFFL);
+  	}
+
+
+  	/**
+  	 * Returns the latitude held by a packed value.
+  	 * @return the latitude, in millionths of degrees, held by packed.
+  	 **/
+  	public static int unpackLatitude(long packed) {
+  		return (int) (packed >> 32);
+  	}
+
+
+  	/**
+  	 * Returns the longitude held by a packed value.
+  	 * @return the longitude, in millionths of degrees, held by packed.
+  	 **/
+  	public static int unpackLongitude(long packed) {
+  		return (int) packed;
+  	}
+
   	 
   	/**
      * Returns the latitude of this.
      * @return the latitude of this in millionths of degrees.
      */
   	public int getLatitude() {
-  		checkRep();
-  		return this.latitude.intValue();
+  		return unpackLatitude(this.packed);
   	}
 
 
@@ -103,9 +172,8 @@ public class GeoPoint {
      * @return the latitude of this in millionths of degrees.
      */
   	public int getLongitude() {
-  		checkRep();
-  		return this.longitude.intValue();  
-  		}
+  		return unpackLongitude(this.packed);
+  	}
 
 
   	/**
@@ -115,16 +183,30 @@ public class GeoPoint {
      *         the Technion approximation.
      **/
   	public double distanceTo(GeoPoint gp) {
-  		this.checkRep();
-  		double x = (((gp.getLongitude() * KM_PER_DEGREE_LONGITUDE) / MILLIONTHS_OF_DEGREES)- 
-				   ((this.getLongitude() * KM_PER_DEGREE_LONGITUDE) / MILLIONTHS_OF_DEGREES));
-  		double y = (((gp.getLatitude() * KM_PER_DEGREE_LATITUDE) / MILLIONTHS_OF_DEGREES) - 
-				   ((this.getLatitude() * KM_PER_DEGREE_LATITUDE) / MILLIONTHS_OF_DEGREES));
-  		this.checkRep();
+  		double x = gp.x - this.x;
+  		double y = gp.y - this.y;
   		return Math.sqrt(x*x + y*y);
   	}
 
 
+  	/**
+  	 * Computes the squared distance between GeoPoints using integer
+  	 * arithmetic only.
+  	 * @requires gp != null
+  	 * @return the square of the distance from this to gp, in square
+  	 *         decimeters, using the flat-surface, near the Technion
+  	 *         approximation. Each axis is truncated to whole decimeters, so
+  	 *         the result is exact for a given pair of points and is suitable
+  	 *         for comparing distances (e.g. nearest-neighbour checks) without
+  	 *         any floating-point work.
+  	 **/
+  	public long squaredDistanceTo(GeoPoint gp) {
+  		long dx = ((long) gp.getLongitude() - this.getLongitude()) * DM_PER_DEGREE_LONGITUDE / SQUARED_DISTANCE_DIVISOR;
+  		long dy = ((long) gp.getLatitude() - this.getLatitude()) * DM_PER_DEGREE_LATITUDE / SQUARED_DISTANCE_DIVISOR;
+  		return dx*dx + dy*dy;
+  	}
+
+
   	/**
      * Computes the compass heading between GeoPoints.
      * @requires gp != null && !this.equals(gp)
@@ -143,13 +225,50 @@ public class GeoPoint {
 		 // degrees and degrees increase in the clockwise direction. By
 		 // mathematical convention, "east" is 0 degrees, and degrees
 		 // increase in the counterclockwise direction. 
-  		this.checkRep();
-		double x = (((gp.getLongitude() * KM_PER_DEGREE_LONGITUDE) / MILLIONTHS_OF_DEGREES) - 
-  				   ((this.getLongitude() * KM_PER_DEGREE_LONGITUDE) / MILLIONTHS_OF_DEGREES));
-		double y = (((gp.getLatitude() * KM_PER_DEGREE_LATITUDE) / MILLIONTHS_OF_DEGREES) - 
-				   ((this.getLatitude() * KM_PER_DEGREE_LATITUDE) / MILLIONTHS_OF_DEGREES));
+  		return heading(gp.x - this.x, gp.y - this.y);
+  	}
+
+
+  	/**
+     * Computes the compass heading between GeoPoints using the given
+     * heading engine.
+     * @requires gp != null && engine != null && !this.equals(gp)
+     * @return the compass heading h from this to gp, in degrees, as computed
+     *         by engine, such that 0 <= h < 360.
+     * @see homework1.HeadingEngine
+     **/
+  	public double headingTo(GeoPoint gp, HeadingEngine engine) {
+  		return engine.heading(gp.x - this.x, gp.y - this.y);
+  	}
+
+
+  	/**
+  	 * Projects a longitude onto the flat-earth x axis.
+  	 * @return the distance, in kilometers, east of longitude 0.
+  	 **/
+  	static double projectLongitude(int longitude) {
+  		return (longitude * KM_PER_DEGREE_LONGITUDE) / MILLIONTHS_OF_DEGREES;
+  	}
+
+
+  	/**
+  	 * Projects a latitude onto the flat-earth y axis.
+  	 * @return the distance, in kilometers, north of the equator.
+  	 **/
+  	static double projectLatitude(int latitude) {
+  		return (latitude * KM_PER_DEGREE_LATITUDE) / MILLIONTHS_OF_DEGREES;
+  	}
+
+
+  	/**
+  	 * Computes the compass heading of a displacement in the flat-earth
+  	 * projection.
+  	 * @requires (x, y) != (0, 0)
+  	 * @return the compass heading h, in degrees, of a displacement of x
+  	 *         kilometers east and y kilometers north, such that 0 <= h < 360.
+  	 **/
+  	static double heading(double x, double y) {
   		double angle = Math.toDegrees((Math.atan2(-y, x)));
-  		this.checkRep();
   		return ((((angle > 0.0) ? angle : (angle + DEGREES__IN_CYRCLE))+(DEGREES__IN_CYRCLE/4))%DEGREES__IN_CYRCLE);
   	}
 
@@ -160,11 +279,14 @@ public class GeoPoint {
      * 		   gp.latitude = this.latitude && gp.longitude = this.longitude
      **/
   	public boolean equals(Object gp) {
+  		if (this == gp) {
+  			return true;
+  		}
   		this.checkRep();
   		if (gp != null && (gp instanceof GeoPoint)){
   			GeoPoint gp_tmp = (GeoPoint) gp;
   			this.checkRep();
-  			return (gp_tmp.getLatitude() == this.getLatitude() && gp_tmp.getLongitude() == this.getLongitude());
+  			return (gp_tmp.packed == this.packed);
   		}
   		this.checkRep();
   		return false;
@@ -193,19 +315,19 @@ public class GeoPoint {
      **/
   	public String toString() {
   		this.checkRep();
-  		return "(" + latitude.toString() + "," + longitude.toString() + ")";
+  		return "(" + this.getLatitude() + "," + this.getLongitude() + ")";
   	}
 
 
 
   	private void checkRep() {
-  		assert(this.latitude <= GeoPoint.MAX_LATITUDE):
+  		assert(this.getLatitude() <= GeoPoint.MAX_LATITUDE):
   			"GeoPoint's latitude is too big";
-  		assert(this.latitude >= GeoPoint.MIN_LATITUDE):
+  		assert(this.getLatitude() >= GeoPoint.MIN_LATITUDE):
   			"GeoPoint's latitude is too small";
-  		assert(this.longitude <= GeoPoint.MAX_LONGITUDE):
+  		assert(this.getLongitude() <= GeoPoint.MAX_LONGITUDE):
   			"GeoPoint's longitude is too big";
-  		assert(this.longitude >= GeoPoint.MIN_LONGITUDE):
+  		assert(this.getLongitude() >= GeoPoint.MIN_LONGITUDE):
   			"GeoPoint's longitude is too small";
   	}
 }
@@ -0,0 +1,420 @@
+package homework1;
+
+import java.util.Arrays;
+
+/**
+ * A GeoPointIndex is a spatial index over a fixed set of points, used to
+ * find the points nearest to a location without scanning all of them.
+ * GeoPointIndexes are immutable, and therefore safe for use by any number of
+ * concurrent readers.
+ * <p>
+ * The points are bucketed into a uniform grid of cells that are roughly
+ * square in kilometers, sized so that a cell holds about two points on
+ * average. Cells are stored in compressed form: the coordinates of all
+ * points are kept in primitive arrays sorted by cell, and a cell is a range
+ * of those arrays. Queries visit the cell of the query location and then
+ * rings of cells around it, stopping as soon as no unvisited cell can hold a
+ * closer point.
+ * <p>
+ * Points are identified by their index in the arrays the GeoPointIndex was
+ * built from. Distances are computed using the same flat-surface, near the
+ * Technion approximation as <tt>GeoPoint.distanceTo()</tt>.
+ */
+public final class GeoPointIndex {
+
+	// average number of points per grid cell
+	private static final int POINTS_PER_CELL = 2;
+
+	// coordinates and original indices of the points, sorted by cell
+	private final int[] lats;
+	private final int[] lons;
+	private final int[] ids;
+
+	// positions[i] is the position, in the sorted arrays, of point i
+	private final int[] positions;
+
+	// the points of cell (col, row) are [cellStart[c], cellStart[c + 1]) for
+	// c = row * cols + col
+	private final int[] cellStart;
+
+	// the grid: its south-west corner and the size of a cell, in millionths
+	// of degrees, and its number of columns and rows
+	private final int minLat;
+	private final int minLon;
+	private final int cellLat;
+	private final int cellLon;
+	private final int cols;
+	private final int rows;
+
+	/**
+	 * Constructs a GeoPointIndex over points given by their coordinates.
+	 *
+	 * @requires lats != null && lons != null && lats.length == lons.length &&
+	 *           every (lats[i], lons[i]) is a valid GeoPoint
+	 * @effects Constructs a GeoPointIndex over the points (lats[i], lons[i]),
+	 *          identified by i. The arrays are copied.
+	 **/
+	public GeoPointIndex(int[] lats, int[] lons) {
+		int n = lats.length;
+		int minLat = Integer.MAX_VALUE, maxLat = Integer.MIN_VALUE;
+		int minLon = Integer.MAX_VALUE, maxLon = Integer.MIN_VALUE;
+		for (int i = 0; i < n; i++) {
+			minLat = Math.min(minLat, lats[i]);
+			maxLat = Math.max(maxLat, lats[i]);
+			minLon = Math.min(minLon, lons[i]);
+			maxLon = Math.max(maxLon, lons[i]);
+		}
+		if (n == 0) {
+			minLat = maxLat = minLon = maxLon = 0;
+		}
+
+		// choose cells that are about square in kilometers, holding
+		// POINTS_PER_CELL points on average
+		double widthKm = Math.max(1e-6, (maxLon - (double) minLon) * GeoPoint.KM_PER_DEGREE_LONGITUDE
+				/ GeoPoint.MILLIONTHS_OF_DEGREES);
+		double heightKm = Math.max(1e-6, (maxLat - (double) minLat) * GeoPoint.KM_PER_DEGREE_LATITUDE
+				/ GeoPoint.MILLIONTHS_OF_DEGREES);
+		double cellKm = Math.sqrt(widthKm * heightKm * POINTS_PER_CELL / Math.max(1, n));
+		cellKm = Math.max(cellKm, Math.max(widthKm, heightKm) / Math.max(1, n));
+		this.minLat = minLat;
+		this.minLon = minLon;
+		this.cellLat = (int) Math.max(1, Math.ceil(cellKm / GeoPoint.KM_PER_DEGREE_LATITUDE
+				* GeoPoint.MILLIONTHS_OF_DEGREES));
+		this.cellLon = (int) Math.max(1, Math.ceil(cellKm / GeoPoint.KM_PER_DEGREE_LONGITUDE
+				* GeoPoint.MILLIONTHS_OF_DEGREES));
+		this.rows = (int) ((maxLat - (long) minLat) / this.cellLat) + 1;
+		this.cols = (int) ((maxLon - (long) minLon) / this.cellLon) + 1;
+
+		// counting sort of the points by cell
+		this.cellStart = new int[this.rows * this.cols + 1];
+		int[] cells = new int[n];
+		for (int i = 0; i < n; i++) {
+			cells[i] = this.cellOf(lats[i], lons[i]);
+			this.cellStart[cells[i] + 1]++;
+		}
+		for (int c = 0; c < this.rows * this.cols; c++) {
+			this.cellStart[c + 1] += this.cellStart[c];
+		}
+		int[] next = Arrays.copyOf(this.cellStart, this.cellStart.length - 1);
+		this.lats = new int[n];
+		this.lons = new int[n];
+		this.ids = new int[n];
+		this.positions = new int[n];
+		for (int i = 0; i < n; i++) {
+			int j = next[cells[i]]++;
+			this.lats[j] = lats[i];
+			this.lons[j] = lons[i];
+			this.ids[j] = i;
+			this.positions[i] = j;
+		}
+	}
+
+	/**
+	 * Creates a GeoPointIndex over GeoPoints.
+	 *
+	 * @requires points != null && no element of points is null
+	 * @return a GeoPointIndex over the elements of points, identified by their
+	 *         index in points.
+	 **/
+	public static GeoPointIndex of(GeoPoint[] points) {
+		int[] lats = new int[points.length];
+		int[] lons = new int[points.length];
+		for (int i = 0; i < points.length; i++) {
+			lats[i] = points[i].getLatitude();
+			lons[i] = points[i].getLongitude();
+		}
+		return new GeoPointIndex(lats, lons);
+	}
+
+	/**
+	 * Creates a GeoPointIndex over packed points.
+	 *
+	 * @requires packed != null && every element of packed was returned by
+	 *           GeoPoint.toPacked()
+	 * @return a GeoPointIndex over the points packed in packed, identified by
+	 *         their index in packed.
+	 **/
+	public static GeoPointIndex of(long[] packed) {
+		int[] lats = new int[packed.length];
+		int[] lons = new int[packed.length];
+		for (int i = 0; i < packed.length; i++) {
+			lats[i] = GeoPoint.unpackLatitude(packed[i]);
+			lons[i] = GeoPoint.unpackLongitude(packed[i]);
+		}
+		return new GeoPointIndex(lats, lons);
+	}
+
+	/**
+	 * Returns the number of points in this.
+	 *
+	 * @return the number of points in this.
+	 **/
+	public int size() {
+		return this.ids.length;
+	}
+
+	/**
+	 * Finds the point nearest to a location.
+	 *
+	 * @requires (lat, lon) is a valid GeoPoint
+	 * @return the index of a point nearest to (lat, lon), or -1 if this is
+	 *         empty.
+	 **/
+	public int nearest(int lat, int lon) {
+		if (this.size() == 0) {
+			return -1;
+		}
+		double bestDist = Double.POSITIVE_INFINITY;
+		int best = -1;
+		int col = this.clampCol(lon);
+		int row = this.clampRow(lat);
+		for (int r = 0;; r++) {
+			for (int y = row - r; y <= row + r; y++) {
+				if (y < 0 || y >= this.rows) {
+					continue;
+				}
+				// only visit the cells on the boundary of the ring
+				int step = (y == row - r || y == row + r) ? 1 : Math.max(1, 2 * r);
+				for (int x = col - r; x <= col + r; x += step) {
+					if (x < 0 || x >= this.cols) {
+						continue;
+					}
+					int c = y * this.cols + x;
+					for (int j = this.cellStart[c]; j < this.cellStart[c + 1]; j++) {
+						double d = this.squaredKm(j, lat, lon);
+						if (d < bestDist) {
+							bestDist = d;
+							best = j;
+						}
+					}
+				}
+			}
+			double bound = this.unvisitedBound(lat, lon, col, row, r);
+			if (bound == Double.POSITIVE_INFINITY || (best >= 0 && bound * bound >= bestDist)) {
+				return this.ids[best];
+			}
+		}
+	}
+
+	/**
+	 * Finds the GeoPoint nearest to a GeoPoint.
+	 *
+	 * @requires gp != null && this.size() > 0
+	 * @return a GeoPoint, among the points of this, nearest to gp.
+	 **/
+	public GeoPoint nearest(GeoPoint gp) {
+		int index = this.nearest(gp.getLatitude(), gp.getLongitude());
+		int j = this.find(index);
+		return new GeoPoint(this.lats[j], this.lons[j]);
+	}
+
+	/**
+	 * Finds the k points nearest to a location.
+	 *
+	 * @requires (lat, lon) is a valid GeoPoint && k >= 0
+	 * @return the indices of the min(k, this.size()) points nearest to
+	 *         (lat, lon), ordered by increasing distance.
+	 **/
+	public int[] nearest(int lat, int lon, int k) {
+		k = Math.min(k, this.size());
+		if (k == 0) {
+			return new int[0];
+		}
+		// a max-heap of the k best candidates so far, ordered by distance
+		double[] heapDist = new double[k];
+		int[] heapId = new int[k];
+		int heapSize = 0;
+
+		int col = this.clampCol(lon);
+		int row = this.clampRow(lat);
+		for (int r = 0;; r++) {
+			for (int y = row - r; y <= row + r; y++) {
+				if (y < 0 || y >= this.rows) {
+					continue;
+				}
+				// only visit the cells on the boundary of the ring
+				int step = (y == row - r || y == row + r) ? 1 : Math.max(1, 2 * r);
+				for (int x = col - r; x <= col + r; x += step) {
+					if (x < 0 || x >= this.cols) {
+						continue;
+					}
+					int c = y * this.cols + x;
+					for (int j = this.cellStart[c]; j < this.cellStart[c + 1]; j++) {
+						double d = this.squaredKm(j, lat, lon);
+						if (heapSize < k) {
+							heapSize = siftUp(heapDist, heapId, heapSize, d, this.ids[j]);
+						} else if (d < heapDist[0]) {
+							siftDown(heapDist, heapId, heapSize, d, this.ids[j]);
+						}
+					}
+				}
+			}
+			double bound = this.unvisitedBound(lat, lon, col, row, r);
+			if (bound == Double.POSITIVE_INFINITY || (heapSize == k && bound * bound >= heapDist[0])) {
+				break;
+			}
+		}
+
+		// empty the heap, farthest first
+		int[] result = new int[heapSize];
+		for (int i = heapSize - 1; i >= 0; i--) {
+			result[i] = heapId[0];
+			double lastDist = heapDist[i];
+			int lastId = heapId[i];
+			siftDown(heapDist, heapId, i, lastDist, lastId);
+		}
+		return result;
+	}
+
+	/**
+	 * Finds all the points within a distance of a location.
+	 *
+	 * @requires (lat, lon) is a valid GeoPoint && km >= 0
+	 * @return the indices, in no particular order, of all the points whose
+	 *         distance from (lat, lon) is at most km.
+	 **/
+	public int[] withinRadius(int lat, int lon, double km) {
+		int dLat = (int) Math.min(Integer.MAX_VALUE / 2,
+				Math.ceil(km / GeoPoint.KM_PER_DEGREE_LATITUDE * GeoPoint.MILLIONTHS_OF_DEGREES));
+		int dLon = (int) Math.min(Integer.MAX_VALUE / 2,
+				Math.ceil(km / GeoPoint.KM_PER_DEGREE_LONGITUDE * GeoPoint.MILLIONTHS_OF_DEGREES));
+		int fromRow = this.clampRow(lat - (long) dLat);
+		int toRow = this.clampRow(lat + (long) dLat);
+		int fromCol = this.clampCol(lon - (long) dLon);
+		int toCol = this.clampCol(lon + (long) dLon);
+		double km2 = km * km;
+		int[] result = new int[8];
+		int count = 0;
+		for (int y = fromRow; y <= toRow; y++) {
+			for (int x = fromCol; x <= toCol; x++) {
+				int c = y * this.cols + x;
+				for (int j = this.cellStart[c]; j < this.cellStart[c + 1]; j++) {
+					if (this.squaredKm(j, lat, lon) <= km2) {
+						if (count == result.length) {
+							result = Arrays.copyOf(result, count * 2);
+						}
+						result[count++] = this.ids[j];
+					}
+				}
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * Returns the latitude of a point.
+	 *
+	 * @requires 0 <= index < this.size()
+	 * @return the latitude of the point identified by index, in millionths of
+	 *         degrees.
+	 **/
+	public int getLatitude(int index) {
+		return this.lats[this.find(index)];
+	}
+
+	/**
+	 * Returns the longitude of a point.
+	 *
+	 * @requires 0 <= index < this.size()
+	 * @return the longitude of the point identified by index, in millionths of
+	 *         degrees.
+	 **/
+	public int getLongitude(int index) {
+		return this.lons[this.find(index)];
+	}
+
+	// Returns the position, in the sorted arrays, of the point identified by
+	// index.
+	private int find(int index) {
+		if (index < 0 || index >= this.positions.length) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.positions.length);
+		}
+		return this.positions[index];
+	}
+
+	// Returns the squared distance, in square kilometers, from (lat, lon) to
+	// the point at position j of the sorted arrays.
+	private double squaredKm(int j, int lat, int lon) {
+		double x = (this.lons[j] - (double) lon) * GeoPoint.KM_PER_DEGREE_LONGITUDE / GeoPoint.MILLIONTHS_OF_DEGREES;
+		double y = (this.lats[j] - (double) lat) * GeoPoint.KM_PER_DEGREE_LATITUDE / GeoPoint.MILLIONTHS_OF_DEGREES;
+		return x * x + y * y;
+	}
+
+	// Returns a lower bound on the distance, in kilometers, from (lat, lon) to
+	// any point outside the cells within ring r of (col, row), or infinity if
+	// those cells cover the whole grid. Every such point lies beyond one of
+	// the sides of the ring that do not reach the edge of the grid.
+	private double unvisitedBound(int lat, int lon, int col, int row, int r) {
+		double bound = Double.POSITIVE_INFINITY;
+		if (col - r > 0) {
+			double edge = this.minLon + (long) (col - r) * this.cellLon;
+			bound = Math.min(bound, Math.max(0, lon - edge) * GeoPoint.KM_PER_DEGREE_LONGITUDE);
+		}
+		if (col + r < this.cols - 1) {
+			double edge = this.minLon + (long) (col + r + 1) * this.cellLon;
+			bound = Math.min(bound, Math.max(0, edge - lon) * GeoPoint.KM_PER_DEGREE_LONGITUDE);
+		}
+		if (row - r > 0) {
+			double edge = this.minLat + (long) (row - r) * this.cellLat;
+			bound = Math.min(bound, Math.max(0, lat - edge) * GeoPoint.KM_PER_DEGREE_LATITUDE);
+		}
+		if (row + r < this.rows - 1) {
+			double edge = this.minLat + (long) (row + r + 1) * this.cellLat;
+			bound = Math.min(bound, Math.max(0, edge - lat) * GeoPoint.KM_PER_DEGREE_LATITUDE);
+		}
+		return bound / GeoPoint.MILLIONTHS_OF_DEGREES;
+	}
+
+	private int cellOf(int lat, int lon) {
+		return this.clampRow(lat) * this.cols + this.clampCol(lon);
+	}
+
+	private int clampRow(long lat) {
+		long row = Math.floorDiv(lat - this.minLat, (long) this.cellLat);
+		return (int) Math.max(0, Math.min(this.rows - 1, row));
+	}
+
+	private int clampCol(long lon) {
+		long col = Math.floorDiv(lon - this.minLon, (long) this.cellLon);
+		return (int) Math.max(0, Math.min(this.cols - 1, col));
+	}
+
+	// Adds (d, id) to a max-heap of the given size, and returns its new size.
+	private static int siftUp(double[] dist, int[] id, int size, double d, int i) {
+		int k = size;
+		while (k > 0) {
+			int parent = (k - 1) >>> 1;
+			if (dist[parent] >= d) {
+				break;
+			}
+			dist[k] = dist[parent];
+			id[k] = id[parent];
+			k = parent;
+		}
+		dist[k] = d;
+		id[k] = i;
+		return size + 1;
+	}
+
+	// Replaces the root of a max-heap of the given size with (d, id).
+	private static void siftDown(double[] dist, int[] id, int size, double d, int i) {
+		int k = 0;
+		int half = size >>> 1;
+		while (k < half) {
+			int child = 2 * k + 1;
+			if (child + 1 < size && dist[child + 1] > dist[child]) {
+				child++;
+			}
+			if (d >= dist[child]) {
+				break;
+			}
+			dist[k] = dist[child];
+			id[k] = id[child];
+			k = child;
+		}
+		if (size > 0) {
+			dist[k] = d;
+			id[k] = i;
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package homework1;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class GeoPointIndexTest {
+
+	private GeoPoint[] points;		// random points around the Technion
+	private GeoPointIndex index;
+	private GeoPoint[] queries;
+
+
+  	public GeoPointIndexTest() {
+  		Random random = new Random(13);
+  		points = new GeoPoint[5000];
+  		for (int i = 0; i < points.length; i++) {
+  			points[i] = new GeoPoint(32770000 + random.nextInt(40000), 35000000 + random.nextInt(40000));
+  		}
+  		index = GeoPointIndex.of(points);
+  		queries = new GeoPoint[200];
+  		for (int i = 0; i < queries.length; i++) {
+  			// some of the queries fall outside the indexed area
+  			queries[i] = new GeoPoint(32750000 + random.nextInt(80000), 34980000 + random.nextInt(80000));
+  		}
+  	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	private double[] distancesFrom(GeoPoint gp) {
+		double[] distances = new double[points.length];
+		for (int i = 0; i < points.length; i++) {
+			distances[i] = gp.distanceTo(points[i]);
+		}
+		return distances;
+	}
+
+
+  	public void test() {
+  		show("construction");
+  		show("Size is the number of points", index.size() == points.length);
+  		boolean ok = true;
+  		for (int i = 0; i < points.length; i++) {
+  			ok &= index.getLatitude(i) == points[i].getLatitude() &&
+  				index.getLongitude(i) == points[i].getLongitude();
+  		}
+  		show("Points keep their indices", ok);
+  		long[] packed = GeoPoints.toPacked(points);
+  		show("Packed points give the same index",
+  			GeoPointIndex.of(packed).nearest(queries[0].getLatitude(), queries[0].getLongitude()) ==
+  			index.nearest(queries[0].getLatitude(), queries[0].getLongitude()));
+
+  		show("nearest()");
+  		ok = true;
+  		for (GeoPoint q : queries) {
+  			double[] distances = distancesFrom(q);
+  			double best = Double.POSITIVE_INFINITY;
+  			for (double d : distances) {
+  				best = Math.min(best, d);
+  			}
+  			int nearest = index.nearest(q.getLatitude(), q.getLongitude());
+  			ok &= Math.abs(distances[nearest] - best) < 1e-9;
+  		}
+  		show("Nearest point agrees with a linear scan", ok);
+  		show("Nearest of an indexed point is itself",
+  			index.nearest(points[42]).equals(points[42]));
+  		GeoPointIndex example = GeoPointIndex.of(ExampleGeoSegments.points);
+  		ok = true;
+  		for (int i = 0; i < ExampleGeoSegments.points.length; i++) {
+  			GeoPoint gp = ExampleGeoSegments.points[i];
+  			ok &= example.nearest(gp.getLatitude(), gp.getLongitude()) == i;
+  		}
+  		show("Example points are their own nearest points", ok);
+  		GeoPointIndex empty = new GeoPointIndex(new int[0], new int[0]);
+  		show("Empty index has no nearest point", empty.nearest(32783098, 35014528) == -1);
+  		GeoPointIndex single = new GeoPointIndex(new int[] {32783098}, new int[] {35014528});
+  		show("Single point is nearest to anything", single.nearest(-45000000, 170000000) == 0);
+
+  		show("nearest(k)");
+  		ok = true;
+  		for (GeoPoint q : queries) {
+  			double[] distances = distancesFrom(q);
+  			double[] sorted = distances.clone();
+  			Arrays.sort(sorted);
+  			int[] nearest = index.nearest(q.getLatitude(), q.getLongitude(), 10);
+  			ok &= nearest.length == 10;
+  			for (int i = 0; i < nearest.length; i++) {
+  				ok &= Math.abs(distances[nearest[i]] - sorted[i]) < 1e-9;
+  			}
+  		}
+  		show("k nearest points agree with a sorted linear scan", ok);
+  		show("k is capped by the number of points",
+  			example.nearest(32783098, 35014528, 100).length == ExampleGeoSegments.points.length);
+  		show("k of 0 gives no points", index.nearest(32783098, 35014528, 0).length == 0);
+
+  		show("withinRadius()");
+  		ok = true;
+  		for (GeoPoint q : queries) {
+  			double[] distances = distancesFrom(q);
+  			int expected = 0;
+  			for (double d : distances) {
+  				if (d <= 0.5) {
+  					expected++;
+  				}
+  			}
+  			int[] within = index.withinRadius(q.getLatitude(), q.getLongitude(), 0.5);
+  			ok &= within.length == expected;
+  			for (int i : within) {
+  				ok &= distances[i] <= 0.5 + 1e-9;
+  			}
+  		}
+  		show("Points within a radius agree with a linear scan", ok);
+  		show("Radius 0 finds the point itself",
+  			index.withinRadius(points[7].getLatitude(), points[7].getLongitude(), 0).length >= 1);
+  	}
+
+
+	public static void main(String[] args) {
+		GeoPointIndexTest geoPointIndexTest = new GeoPointIndexTest();
+		geoPointIndexTest.test();
+	}
+}
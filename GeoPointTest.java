@@ -0,0 +1,111 @@
+package homework1;
+
+public class GeoPointTest {
+	
+	private static final double tolerance = 0.01;
+   
+  	private GeoPoint gpZivSquare;
+  	private GeoPoint gpWest;			// 1 km west to gpZivSquare
+  	private GeoPoint gpEast;			// 1 km east to gpZivSquare 
+  	private GeoPoint gpNorth;			// 1 km north to gpZivSquare
+  
+  
+  	public GeoPointTest() {
+		gpZivSquare = new GeoPoint(32783098,35014528);
+		gpWest = new GeoPoint(32783098,35003854);
+		gpEast = new GeoPoint(32783098,35025202);
+		gpNorth = new GeoPoint(32792115,35014528);
+  	}
+  	
+  	
+  	boolean same(double x, double y) {
+  		return ((y >= x-tolerance) && (y <= x+tolerance));
+  	}
+  	
+  	
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+		
+		
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);	
+	}
+  	
+  	
+  	public void test() {
+  		show("getLatitude() & getLongitude()");
+		show("getLatitude() works.", gpZivSquare.getLatitude() == 32783098);
+		show("getLongitude() works.", gpZivSquare.getLongitude() == 35014528);
+		GeoPoint gpSouthWest = new GeoPoint(GeoPoint.MIN_LATITUDE, GeoPoint.MIN_LONGITUDE);
+		show("Negative coordinates are kept.",
+			gpSouthWest.getLatitude() == GeoPoint.MIN_LATITUDE &&
+			gpSouthWest.getLongitude() == GeoPoint.MIN_LONGITUDE);
+
+  		show("toPacked() & ofPacked()");
+		show("Packed point is rebuilt equal to the original.",
+			GeoPoint.ofPacked(gpZivSquare.toPacked()).equals(gpZivSquare));
+		show("Packed negative point is rebuilt equal to the original.",
+			GeoPoint.ofPacked(gpSouthWest.toPacked()).equals(gpSouthWest));
+		show("Different points have different packed values.",
+			gpEast.toPacked() != gpWest.toPacked());
+		
+		show("equals() & hashCode()");
+		GeoPoint gpZivSquare2 = new GeoPoint(32783098,35014528);
+		show("Point equality should use value equality, not reference equality",
+			gpZivSquare.equals(gpZivSquare2));
+		show(".equals() objects must have the same .hashCode()",
+			gpZivSquare.hashCode() == gpZivSquare2.hashCode());
+		show("Latitude and longitude are not interchangeable.",
+			!new GeoPoint(1,2).equals(new GeoPoint(2,1)));
+		
+		show("distanceTo()");
+		show("East 1 km", same(gpZivSquare.distanceTo(gpEast),1.0));
+		show("North 1 km", same(gpZivSquare.distanceTo(gpNorth),1.0));
+		show("West to east 2 km", same(gpWest.distanceTo(gpEast),2.0));
+		show("Distance to self is 0", gpZivSquare.distanceTo(gpZivSquare) == 0.0);
+		
+		show("squaredDistanceTo()");
+		show("East 1 km is about 10000^2 square decimeters",
+			same(Math.sqrt(gpZivSquare.squaredDistanceTo(gpEast)) / 10000, 1.0));
+		show("Squared distance is symmetric",
+			gpWest.squaredDistanceTo(gpNorth) == gpNorth.squaredDistanceTo(gpWest));
+		show("Squared distance orders points like distanceTo()",
+			gpZivSquare.squaredDistanceTo(gpEast) < gpWest.squaredDistanceTo(gpEast));
+		
+		show("headingTo()");
+		show("East should be 90", same(gpZivSquare.headingTo(gpEast), 90.0));
+		show("West should be 270", same(gpZivSquare.headingTo(gpWest), 270.0));
+		show("South should be 180", same(gpNorth.headingTo(gpZivSquare), 180.0));
+		
+		show("headingTo() with HeadingEngine.FAST");
+		double maxError = 0;
+		for (int lat = -1000; lat <= 1000; lat += 7) {
+			for (int lon = -1000; lon <= 1000; lon += 7) {
+				GeoPoint gp = new GeoPoint(32783098 + lat, 35014528 + lon);
+				double exact = gpZivSquare.headingTo(gp, HeadingEngine.EXACT);
+				double fast = gpZivSquare.headingTo(gp, HeadingEngine.FAST);
+				double error = Math.abs(exact - fast);
+				maxError = Math.max(maxError, Math.min(error, 360.0 - error));
+				if (fast < 0.0 || fast >= 360.0) {
+					maxError = Double.POSITIVE_INFINITY;
+				}
+			}
+		}
+		show("FAST headings are in [0,360) and within FAST_MAX_ERROR of EXACT (" + maxError + ")",
+			maxError <= HeadingEngine.FAST_MAX_ERROR);
+		show("EXACT engine matches headingTo()",
+			gpZivSquare.headingTo(gpWest, HeadingEngine.EXACT) == gpZivSquare.headingTo(gpWest));
+  	}
+
+
+	public static void main(String[] args) {
+		GeoPointTest pointTest = new GeoPointTest();
+		pointTest.test();
+	}
+}
@@ -0,0 +1,173 @@
+package homework1;
+
+/**
+ * GeoPoints provides batch versions of <tt>GeoPoint.distanceTo()</tt> and
+ * <tt>GeoPoint.headingTo()</tt> that work directly on primitive coordinate
+ * arrays, without creating GeoPoint objects.
+ * <p>
+ * Points are given either as two parallel <tt>int[]</tt> arrays of
+ * latitudes and longitudes in millionths of degrees, or as a single
+ * <tt>long[]</tt> of packed values as returned by
+ * <tt>GeoPoint.toPacked()</tt>. Results are written into a caller supplied
+ * <tt>double[]</tt>, so a whole batch is computed without any allocation.
+ * <p>
+ * All methods use the same flat-surface, near the Technion approximation as
+ * GeoPoint. The distance loops are kept free of branches and method calls
+ * so the JIT can vectorize them.
+ */
+public final class GeoPoints {
+
+	private GeoPoints() {
+	}
+
+	/**
+	 * Computes the distances from one point to many points.
+	 *
+	 * @requires lats.length == lons.length && out.length >= lats.length
+	 * @effects out[i] = distance from (lat, lon) to (lats[i], lons[i]), in
+	 *          kilometers, for all 0 <= i < lats.length
+	 **/
+	public static void distances(int lat, int lon, int[] lats, int[] lons, double[] out) {
+		double x0 = GeoPoint.projectLongitude(lon);
+		double y0 = GeoPoint.projectLatitude(lat);
+		for (int i = 0; i < lats.length; i++) {
+			double x = GeoPoint.projectLongitude(lons[i]) - x0;
+			double y = GeoPoint.projectLatitude(lats[i]) - y0;
+			out[i] = Math.sqrt(x * x + y * y);
+		}
+	}
+
+	/**
+	 * Computes the distances from one point to many packed points.
+	 *
+	 * @requires out.length >= points.length
+	 * @effects out[i] = distance from the point packed in from to the point
+	 *          packed in points[i], in kilometers, for all
+	 *          0 <= i < points.length
+	 **/
+	public static void distances(long from, long[] points, double[] out) {
+		double x0 = GeoPoint.projectLongitude(GeoPoint.unpackLongitude(from));
+		double y0 = GeoPoint.projectLatitude(GeoPoint.unpackLatitude(from));
+		for (int i = 0; i < points.length; i++) {
+			double x = GeoPoint.projectLongitude(GeoPoint.unpackLongitude(points[i])) - x0;
+			double y = GeoPoint.projectLatitude(GeoPoint.unpackLatitude(points[i])) - y0;
+			out[i] = Math.sqrt(x * x + y * y);
+		}
+	}
+
+	/**
+	 * Computes the distances between pairs of points.
+	 *
+	 * @requires all arrays have the same length, except out.length which is
+	 *           at least as long
+	 * @effects out[i] = distance from (lats1[i], lons1[i]) to
+	 *          (lats2[i], lons2[i]), in kilometers, for all
+	 *          0 <= i < lats1.length
+	 **/
+	public static void pairwiseDistances(int[] lats1, int[] lons1, int[] lats2, int[] lons2, double[] out) {
+		for (int i = 0; i < lats1.length; i++) {
+			double x = GeoPoint.projectLongitude(lons2[i]) - GeoPoint.projectLongitude(lons1[i]);
+			double y = GeoPoint.projectLatitude(lats2[i]) - GeoPoint.projectLatitude(lats1[i]);
+			out[i] = Math.sqrt(x * x + y * y);
+		}
+	}
+
+	/**
+	 * Computes the distances between pairs of packed points.
+	 *
+	 * @requires from.length == to.length && out.length >= from.length
+	 * @effects out[i] = distance from the point packed in from[i] to the point
+	 *          packed in to[i], in kilometers, for all 0 <= i < from.length
+	 **/
+	public static void pairwiseDistances(long[] from, long[] to, double[] out) {
+		for (int i = 0; i < from.length; i++) {
+			double x = GeoPoint.projectLongitude(GeoPoint.unpackLongitude(to[i]))
+					- GeoPoint.projectLongitude(GeoPoint.unpackLongitude(from[i]));
+			double y = GeoPoint.projectLatitude(GeoPoint.unpackLatitude(to[i]))
+					- GeoPoint.projectLatitude(GeoPoint.unpackLatitude(from[i]));
+			out[i] = Math.sqrt(x * x + y * y);
+		}
+	}
+
+	/**
+	 * Computes the compass headings from one point to many points.
+	 *
+	 * @requires lats.length == lons.length && out.length >= lats.length &&
+	 *           (lats[i], lons[i]) != (lat, lon) for all i
+	 * @effects out[i] = compass heading from (lat, lon) to (lats[i], lons[i]),
+	 *          in degrees, for all 0 <= i < lats.length
+	 **/
+	public static void headings(int lat, int lon, int[] lats, int[] lons, double[] out) {
+		double x0 = GeoPoint.projectLongitude(lon);
+		double y0 = GeoPoint.projectLatitude(lat);
+		for (int i = 0; i < lats.length; i++) {
+			out[i] = GeoPoint.heading(GeoPoint.projectLongitude(lons[i]) - x0,
+					GeoPoint.projectLatitude(lats[i]) - y0);
+		}
+	}
+
+	/**
+	 * Computes the compass headings from one point to many packed points.
+	 *
+	 * @requires out.length >= points.length && points[i] != from for all i
+	 * @effects out[i] = compass heading from the point packed in from to the
+	 *          point packed in points[i], in degrees, for all
+	 *          0 <= i < points.length
+	 **/
+	public static void headings(long from, long[] points, double[] out) {
+		double x0 = GeoPoint.projectLongitude(GeoPoint.unpackLongitude(from));
+		double y0 = GeoPoint.projectLatitude(GeoPoint.unpackLatitude(from));
+		for (int i = 0; i < points.length; i++) {
+			out[i] = GeoPoint.heading(GeoPoint.projectLongitude(GeoPoint.unpackLongitude(points[i])) - x0,
+					GeoPoint.projectLatitude(GeoPoint.unpackLatitude(points[i])) - y0);
+		}
+	}
+
+	/**
+	 * Computes the compass headings between pairs of points.
+	 *
+	 * @requires all arrays have the same length, except out.length which is
+	 *           at least as long, and no pair is made of equal points
+	 * @effects out[i] = compass heading from (lats1[i], lons1[i]) to
+	 *          (lats2[i], lons2[i]), in degrees, for all 0 <= i < lats1.length
+	 **/
+	public static void pairwiseHeadings(int[] lats1, int[] lons1, int[] lats2, int[] lons2, double[] out) {
+		for (int i = 0; i < lats1.length; i++) {
+			out[i] = GeoPoint.heading(GeoPoint.projectLongitude(lons2[i]) - GeoPoint.projectLongitude(lons1[i]),
+					GeoPoint.projectLatitude(lats2[i]) - GeoPoint.projectLatitude(lats1[i]));
+		}
+	}
+
+	/**
+	 * Computes the compass headings between pairs of packed points.
+	 *
+	 * @requires from.length == to.length && out.length >= from.length &&
+	 *           from[i] != to[i] for all i
+	 * @effects out[i] = compass heading from the point packed in from[i] to
+	 *          the point packed in to[i], in degrees, for all
+	 *          0 <= i < from.length
+	 **/
+	public static void pairwiseHeadings(long[] from, long[] to, double[] out) {
+		for (int i = 0; i < from.length; i++) {
+			out[i] = GeoPoint.heading(
+					GeoPoint.projectLongitude(GeoPoint.unpackLongitude(to[i]))
+							- GeoPoint.projectLongitude(GeoPoint.unpackLongitude(from[i])),
+					GeoPoint.projectLatitude(GeoPoint.unpackLatitude(to[i]))
+							- GeoPoint.projectLatitude(GeoPoint.unpackLatitude(from[i])));
+		}
+	}
+
+	/**
+	 * Packs an array of GeoPoints.
+	 *
+	 * @requires points != null && no element of points is null
+	 * @return an array a such that a[i] = points[i].toPacked()
+	 **/
+	public static long[] toPacked(GeoPoint[] points) {
+		long[] packed = new long[points.length];
+		for (int i = 0; i < points.length; i++) {
+			packed[i] = points[i].toPacked();
+		}
+		return packed;
+	}
+}
@@ -0,0 +1,130 @@
+package homework1;
+
+public class GeoPointsTest {
+	
+	private static final double tolerance = 0.01;
+   
+  	private GeoPoint[] points;
+  	private int[] lats;
+  	private int[] lons;
+  	private long[] packed;
+  
+  
+  	public GeoPointsTest() {
+  		points = ExampleGeoSegments.points;
+  		lats = new int[points.length];
+  		lons = new int[points.length];
+  		for (int i = 0; i < points.length; i++) {
+  			lats[i] = points[i].getLatitude();
+  			lons[i] = points[i].getLongitude();
+  		}
+  		packed = GeoPoints.toPacked(points);
+  	}
+  	
+  	
+  	boolean same(double x, double y) {
+  		return ((y >= x-tolerance) && (y <= x+tolerance));
+  	}
+  	
+  	
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+		
+		
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);	
+	}
+	
+	
+	// rotates a by one position, so that pairs (a[i], rotate(a)[i]) never
+	// hold the same point
+	private int[] rotate(int[] a) {
+		int[] r = new int[a.length];
+		for (int i = 0; i < a.length; i++) {
+			r[i] = a[(i + 1) % a.length];
+		}
+		return r;
+	}
+	
+	
+	private long[] rotate(long[] a) {
+		long[] r = new long[a.length];
+		for (int i = 0; i < a.length; i++) {
+			r[i] = a[(i + 1) % a.length];
+		}
+		return r;
+	}
+  	
+  	
+  	public void test() {
+  		double[] out = new double[points.length];
+  		GeoPoint from = points[0];
+  		
+  		show("distances()");
+  		GeoPoints.distances(from.getLatitude(), from.getLongitude(), lats, lons, out);
+  		boolean ok = true;
+  		for (int i = 0; i < points.length; i++) {
+  			ok &= same(from.distanceTo(points[i]), out[i]);
+  		}
+  		show("One to many distances match distanceTo()", ok);
+  		
+  		GeoPoints.distances(from.toPacked(), packed, out);
+  		ok = true;
+  		for (int i = 0; i < points.length; i++) {
+  			ok &= same(from.distanceTo(points[i]), out[i]);
+  		}
+  		show("One to many packed distances match distanceTo()", ok);
+  		
+  		int[] lats2 = rotate(lats);
+  		int[] lons2 = rotate(lons);
+  		GeoPoints.pairwiseDistances(lats, lons, lats2, lons2, out);
+  		ok = true;
+  		for (int i = 0; i < points.length; i++) {
+  			ok &= same(points[i].distanceTo(points[(i + 1) % points.length]), out[i]);
+  		}
+  		show("Pairwise distances match distanceTo()", ok);
+  		
+  		GeoPoints.pairwiseDistances(packed, rotate(packed), out);
+  		ok = true;
+  		for (int i = 0; i < points.length; i++) {
+  			ok &= same(points[i].distanceTo(points[(i + 1) % points.length]), out[i]);
+  		}
+  		show("Pairwise packed distances match distanceTo()", ok);
+  		
+  		show("headings()");
+  		GeoPoint[] others = new GeoPoint[points.length - 1];
+  		System.arraycopy(points, 1, others, 0, others.length);
+  		GeoPoints.headings(from.toPacked(), GeoPoints.toPacked(others), out);
+  		ok = true;
+  		for (int i = 0; i < others.length; i++) {
+  			ok &= same(from.headingTo(others[i]), out[i]);
+  		}
+  		show("One to many packed headings match headingTo()", ok);
+  		
+  		GeoPoints.pairwiseHeadings(lats, lons, lats2, lons2, out);
+  		ok = true;
+  		for (int i = 0; i < points.length; i++) {
+  			ok &= same(points[i].headingTo(points[(i + 1) % points.length]), out[i]);
+  		}
+  		show("Pairwise headings match headingTo()", ok);
+  		
+  		GeoPoints.pairwiseHeadings(packed, rotate(packed), out);
+  		ok = true;
+  		for (int i = 0; i < points.length; i++) {
+  			ok &= same(points[i].headingTo(points[(i + 1) % points.length]), out[i]);
+  		}
+  		show("Pairwise packed headings match headingTo()", ok);
+  	}
+
+
+	public static void main(String[] args) {
+		GeoPointsTest pointsTest = new GeoPointsTest();
+		pointsTest.test();
+	}
+}
@@ -40,10 +40,21 @@ package homework1;
  * </pre>
  **/
 public class GeoSegment  {	
-  	private String segment_name;
-  	private GeoPoint p1,p2;
-  	private double heading;
-  	private double dist;
+  	// The name is kept as its id in StreetNames, which holds a single copy
+  	// of every name however many segments share it.
+  	private final int nameId;
+  	private final GeoPoint p1,p2;
+  	private final HeadingEngine engine;
+  	// heading, dist and hash are derived from the fields above. They are
+  	// computed lazily, on first use, and cached. headingBits and distBits
+  	// hold the bits of the value plus one (see cache()), so that their
+  	// default, 0, means "not computed yet", as it does for hash. A thread
+  	// that sees a segment before its constructor's writes then computes the
+  	// value again instead of reading a wrong one, and since a segment is
+  	// immutable, racing threads can only ever store the same value.
+  	private volatile long headingBits;
+  	private volatile long distBits;
+  	private int hash;
 		
   	/**
      * Constructs a new GeoSegment with the specified name and endpoints.
@@ -51,15 +62,63 @@ public class GeoSegment  {
      * @effects constructs a new GeoSegment with the specified name and endpoints.
      **/
   	public GeoSegment(String name, GeoPoint p1, GeoPoint p2) {
+  		this(name, p1, p2, HeadingEngine.EXACT);
+  	}
+
+
+  	/**
+     * Constructs a new GeoSegment with the specified name and endpoints,
+     * computing its heading with the given heading engine.
+     * @requires name != null && p1 != null && p2 != null && engine != null
+     * @effects constructs a new GeoSegment with the specified name and
+     *          endpoints, whose heading is computed by engine.
+     * @see homework1.HeadingEngine
+     **/
+  	public GeoSegment(String name, GeoPoint p1, GeoPoint p2, HeadingEngine engine) {
   		this.p1           = p1;
   		this.p2           = p2;
-  		this.segment_name = name;
-  		this.heading      = p1.headingTo(p2);
-  		this.dist         = p1.distanceTo(p2);  //Math.sqrt(Math.pow(p2.x-p1.x,2) + Math.pow(p2.y-p1.y,2));
+  		this.nameId       = StreetNames.idOf(name);
+  		this.engine       = engine;
   		this.checkRep(); 		
   	}
 
 
+  	/**
+  	 * Constructs a new GeoSegment whose heading, length and hash code are
+  	 * already known. Any of them may be passed as NaN (or 0 for hash) to
+  	 * have it computed on demand.
+  	 * @requires name != null && p1 != null && p2 != null && engine != null
+  	 *           && heading, dist and hash are the values that the public
+  	 *           constructor would compute for name, p1, p2 and engine
+  	 **/
+  	GeoSegment(String name, GeoPoint p1, GeoPoint p2, HeadingEngine engine,
+  			   double heading, double dist, int hash) {
+  		this(StreetNames.idOf(name), p1, p2, engine, heading, dist, hash);
+  	}
+
+
+  	/**
+  	 * Constructs a new GeoSegment whose name is given by its id in
+  	 * StreetNames, and whose heading, length and hash code are already
+  	 * known, as above.
+  	 * @requires nameId was returned by StreetNames.idOf() && p1 != null
+  	 *           && p2 != null && engine != null && heading, dist and hash
+  	 *           are the values that the public constructor would compute for
+  	 *           StreetNames.nameOf(nameId), p1, p2 and engine
+  	 **/
+  	GeoSegment(int nameId, GeoPoint p1, GeoPoint p2, HeadingEngine engine,
+  			   double heading, double dist, int hash) {
+  		this.p1           = p1;
+  		this.p2           = p2;
+  		this.nameId       = nameId;
+  		this.engine       = engine;
+  		this.headingBits  = cache(heading);
+  		this.distBits     = cache(dist);
+  		this.hash         = hash;
+  		this.checkRep();
+  	}
+
+
   	/**
      * Returns a new GeoSegment like this one, but with its endpoints reversed.
      * @return a new GeoSegment gs such that gs.name = this.name
@@ -67,7 +126,12 @@ public class GeoSegment  {
      **/
   	public GeoSegment reverse() {
   		this.checkRep();
-  		GeoSegment rev_geo_seg = new GeoSegment(this.segment_name,this.p2,this.p1);
+  		// the reversed segment has the same length and the opposite
+  		// heading, so no trigonometry is needed to build it
+  		double h = cached(this.headingBits);
+  		double revHeading = Double.isNaN(h) ? Double.NaN : ((h + 180.0) % GeoPoint.DEGREES__IN_CYRCLE);
+  		GeoSegment rev_geo_seg = new GeoSegment(this.nameId, this.p2, this.p1, this.engine,
+  												revHeading, cached(this.distBits), 0);
   		return rev_geo_seg;
   	}
 
@@ -78,7 +142,27 @@ public class GeoSegment  {
      */
   	public String getName() {
   		this.checkRep();
-  		return this.segment_name;
+  		return StreetNames.nameOf(this.nameId);
+  	}
+
+
+  	/**
+  	 * Returns the id of the name of this GeoSegment.
+     * @return StreetNames.idOf(this.name)
+     * @see homework1.StreetNames
+     */
+  	public int getNameId() {
+  		return this.nameId;
+  	}
+
+
+  	/**
+  	 * Returns the heading engine of this GeoSegment.
+     * @return the HeadingEngine that computes the heading of this segment.
+     * @see homework1.HeadingEngine
+     */
+  	public HeadingEngine getHeadingEngine() {
+  		return this.engine;
   	}
 
 
@@ -108,8 +192,28 @@ public class GeoSegment  {
      *         Technion approximation.
      */
   	public double getLength() {
+  		long bits = this.distBits;
+  		if (bits != 0) {
+  			return cached(bits);
+  		}
+  		double d = this.p1.distanceTo(this.p2);
+  		this.distBits = cache(d);
+  		return d;
+  	}
+
+
+  	/**
+  	 * Returns the length of the segment according to a distance model.
+  	 * @requires model != null
+     * @return the length of the segment, in kilometers, using model.
+     * @see homework1.DistanceModel
+     */
+  	public double getLength(DistanceModel model) {
   		this.checkRep();
-  		return this.dist;
+  		if (model == DistanceModel.FLAT) {
+  			return this.getLength();
+  		}
+  		return model.distance(this.p1, this.p2);
   	}
 
 
@@ -123,7 +227,47 @@ public class GeoSegment  {
   		if (this.p1.equals(this.p2)) {
   			return -1;
   		}
-  		return this.heading;
+  		long bits = this.headingBits;
+  		if (bits != 0) {
+  			return cached(bits);
+  		}
+  		double h = this.p1.headingTo(this.p2, this.engine);
+  		this.headingBits = cache(h);
+  		return h;
+  	}
+
+
+  	/**
+  	 * Returns the distance from a GeoPoint to this segment.
+  	 * @requires gp != null
+     * @return the distance, in kilometers, from gp to the point of this
+     *         segment nearest to it, using the flat-surface, near the
+     *         Technion approximation.
+     **/
+  	public double distanceTo(GeoPoint gp) {
+  		this.checkRep();
+  		return Math.sqrt(squaredDistance(
+  				GeoPoint.projectLongitude(gp.getLongitude()), GeoPoint.projectLatitude(gp.getLatitude()),
+  				GeoPoint.projectLongitude(this.p1.getLongitude()), GeoPoint.projectLatitude(this.p1.getLatitude()),
+  				GeoPoint.projectLongitude(this.p2.getLongitude()), GeoPoint.projectLatitude(this.p2.getLatitude())));
+  	}
+
+
+  	/**
+  	 * Computes the squared distance from a point to a segment in the
+  	 * flat-earth projection.
+  	 * @return the squared distance, in square kilometers, from (x, y) to the
+  	 *         nearest point of the segment from (x1, y1) to (x2, y2).
+  	 **/
+  	static double squaredDistance(double x, double y, double x1, double y1, double x2, double y2) {
+  		double dx = x2 - x1;
+  		double dy = y2 - y1;
+  		double len2 = dx * dx + dy * dy;
+  		double t = (len2 == 0) ? 0 : ((x - x1) * dx + (y - y1) * dy) / len2;
+  		t = Math.max(0, Math.min(1, t));
+  		double ex = x1 + t * dx - x;
+  		double ey = y1 + t * dy - y;
+  		return ex * ex + ey * ey;
   	}
 
 
@@ -133,6 +277,9 @@ public class GeoSegment  {
      *         && gs.name = this.name && gs.p1 = this.p1 && gs.p2 = this.p2
    	 **/
   	public boolean equals(Object gs) {
+  		if (this == gs) {
+  			return true;
+  		}
   		this.checkRep();
   		if (gs == null || !(gs instanceof GeoSegment))
   			return false;
@@ -140,7 +287,7 @@ public class GeoSegment  {
   		GeoSegment other_segment = (GeoSegment)gs;
   		if (this.p1.equals(other_segment.p1) &&
   		    this.p2.equals(other_segment.p2) &&
-  		    this.segment_name.equals(other_segment.segment_name))
+  		    this.nameId == other_segment.nameId)
   			return true;
   		else
   			return false;
@@ -152,12 +299,14 @@ public class GeoSegment  {
      * @return a hash code value for this.
      **/
   	public int hashCode() {
-  		this.checkRep();
-  		int hashcode = 11;
-  		hashcode = 37 * hashcode + this.getName().hashCode();
-  		hashcode = 37 * hashcode + this.getP1().hashCode();
-  		hashcode = 37 * hashcode + this.getP2().hashCode();
-  		this.checkRep();
+  		int hashcode = this.hash;
+  		if (hashcode == 0) {
+  			hashcode = 11;
+  			hashcode = 37 * hashcode + this.nameId;
+  			hashcode = 37 * hashcode + this.getP1().hashCode();
+  			hashcode = 37 * hashcode + this.getP2().hashCode();
+  			this.hash = hashcode;
+  		}
     	return hashcode;
   	}
 
@@ -168,7 +317,7 @@ public class GeoSegment  {
      **/
   	public String toString() {
   		this.checkRep();
-  		String st = "name : " + this.segment_name + "coordnations"  + "("  + this.p1.getLongitude() + this.p1.getLatitude() +")"
+  		String st = "name : " + this.getName() + "coordnations"  + "("  + this.p1.getLongitude() + this.p1.getLatitude() +")"
   								+ "("  + this.p2.getLongitude() + this.p2.getLatitude() +")";
   		return st;
   		
@@ -181,11 +330,27 @@ public class GeoSegment  {
   	 * 
   	 **/
   	private void checkRep() {
-  		assert(this.dist >= 0):
+  		double d = cached(this.distBits);
+  		double h = cached(this.headingBits);
+  		assert(Double.isNaN(d) || d >= 0):
   			"Error negetive distance";
-  		assert(0 <= this.heading && 360 >= this.heading):
+  		assert(Double.isNaN(h) || (0 <= h && 360 >= h)):
   			"fatal Error wrong coding for angel calcuation" ; 
   	}
 
+
+  	// Encodes a cached value so that no value encodes to 0, which is kept
+  	// for "not computed yet"; NaN encodes to 0. Computed values are never
+  	// NaN, and no other value has the raw bits -1, a NaN pattern.
+  	private static long cache(double value) {
+  		return Double.isNaN(value) ? 0 : Double.doubleToRawLongBits(value) + 1;
+  	}
+
+
+  	// Decodes a value encoded by cache(); 0 decodes to NaN.
+  	private static double cached(long bits) {
+  		return (bits == 0) ? Double.NaN : Double.longBitsToDouble(bits - 1);
+  	}
+
 }
 
@@ -107,6 +107,8 @@ public class GeoSegmentTest {
 		show("West 1 km", same(gsWest.getLength(),1.0));
 		show("North 1 km", same(gsNorth.getLength(),1.0));
 		show("1.414 km", same(gsDiag.getLength(),1.414));
+		show("Reversed segment has the same length",
+			gsDiag.reverse().getLength() == gsDiag.getLength());
 		
 		show("getHeading()");
 		show("East should be 90", same(gsEast.getHeading(), 90.0));
@@ -120,6 +122,24 @@ public class GeoSegmentTest {
 			!((nh > tolerance) && (Math.abs(360.0 - nh)> tolerance )));
 		show("South heading should be 180",
 		 	same(gsNorth.reverse().getHeading(), 180.0));		
+		show("Reversed heading matches a segment built reversed",
+			same(gsDiag.reverse().getHeading(),
+				 new GeoSegment("NE", gpNorth, gpWest).getHeading()));
+		double first = gsNorth.getHeading();
+		show("Cached heading of a northbound segment is stable",
+			gsNorth.getHeading() == first && gsNorth.getHeading() == nh);
+		GeoSegment gsDot = new GeoSegment("Dot", gpWest, gpWest);
+		show("Zero length is cached as 0",
+			gsDot.getLength() == 0.0 && gsDot.getLength() == 0.0 && gsDot.reverse().getLength() == 0.0);
+		
+		show("distanceTo()");
+		show("Endpoint is at distance 0", gsEast.distanceTo(gpEast) == 0.0);
+		show("North point is 1 km from the east segment",
+			same(gsEast.distanceTo(gpNorth), 1.0));
+		show("East point is 1 km beyond the end of the west segment",
+			same(gsWest2.distanceTo(gpEast), 1.0));
+		show("Zero length segment measures to its point",
+			same(new GeoSegment("Dot", gpWest, gpWest).distanceTo(gpZivSquare), 1.0));
   	}
 
 
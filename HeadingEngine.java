@@ -0,0 +1,83 @@
+package homework1;
+
+/**
+ * A HeadingEngine knows how to compute the compass heading of a
+ * displacement in the flat-earth projection used by GeoPoint.
+ * <p>
+ * <tt>EXACT</tt> is the engine used by <tt>GeoPoint.headingTo(GeoPoint)</tt>
+ * and by the GeoSegment constructor by default. <tt>FAST</tt> replaces
+ * <tt>Math.atan2</tt> and <tt>Math.toDegrees</tt> with a polynomial
+ * approximation and may be chosen when building many segments in bulk, for
+ * example through <tt>GeoSegment(String, GeoPoint, GeoPoint,
+ * HeadingEngine)</tt>.
+ * <p>
+ * Turn classification in RouteFormatter only needs to resolve the 10, 60,
+ * 120 and 179 degree thresholds, so headings computed by <tt>FAST</tt> give
+ * the same directions except for turns that lie within its maximum error
+ * of such a threshold.
+ */
+public enum HeadingEngine {
+
+	/**
+	 * Computes headings with <tt>Math.atan2</tt>.
+	 */
+	EXACT {
+		public double heading(double x, double y) {
+			return GeoPoint.heading(x, y);
+		}
+	},
+
+	/**
+	 * Computes headings with a degree 11 minimax polynomial for arctangent
+	 * over a single octant. The absolute error is less than
+	 * <tt>FAST_MAX_ERROR</tt> degrees.
+	 */
+	FAST {
+		public double heading(double x, double y) {
+			double ax = Math.abs(x);
+			double ay = Math.abs(y);
+			if (ax == 0 && ay == 0) {
+				return EXACT.heading(x, y);
+			}
+			// q is the angle, in [0, 90] degrees, between the displacement
+			// and the north-south axis
+			double q = (ax <= ay) ? atanDegrees(ax / ay) : (90.0 - atanDegrees(ay / ax));
+			double h;
+			if (y >= 0) {
+				h = (x >= 0) ? q : (GeoPoint.DEGREES__IN_CYRCLE - q);
+			} else {
+				h = (x >= 0) ? (180.0 - q) : (180.0 + q);
+			}
+			return (h >= GeoPoint.DEGREES__IN_CYRCLE) ? (h - GeoPoint.DEGREES__IN_CYRCLE) : h;
+		}
+	};
+
+	/**
+	 * Maximum absolute error, in degrees, of headings computed by
+	 * <tt>FAST</tt>.
+	 */
+	public static final double FAST_MAX_ERROR = 0.0001;
+
+	/**
+	 * Computes the compass heading of a displacement in the flat-earth
+	 * projection.
+	 *
+	 * @requires (x, y) != (0, 0)
+	 * @return the compass heading h, in degrees, of a displacement of x
+	 *         kilometers east and y kilometers north, such that 0 <= h < 360.
+	 **/
+	public abstract double heading(double x, double y);
+
+	/**
+	 * Approximates arctangent over [0, 1].
+	 *
+	 * @requires 0 <= z <= 1
+	 * @return atan(z) in degrees, within FAST_MAX_ERROR
+	 **/
+	private static double atanDegrees(double z) {
+		double z2 = z * z;
+		double rad = z * (0.99997726 + z2 * (-0.33262347 + z2 * (0.19354346
+				+ z2 * (-0.11643287 + z2 * (0.05265332 + z2 * (-0.01172120))))));
+		return rad * (180.0 / Math.PI);
+	}
+}
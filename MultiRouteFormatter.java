@@ -0,0 +1,94 @@
+package homework1;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * A MultiRouteFormatter gives directions for a Route in several formats at
+ * once. It walks the features of the route a single time, classifies the
+ * turn onto each feature once, and has each of its RouteFormatters append
+ * its line for the feature to its own destination.
+ * <p>
+ * The directions in each format are exactly those that the RouteFormatter
+ * for the format computes on its own. MultiRouteFormatters are immutable; they
+ * are safe for use by multiple threads if their RouteFormatters are.
+ */
+public class MultiRouteFormatter {
+
+	private final RouteFormatter[] formatters;
+
+	/**
+	 * Constructs a new MultiRouteFormatter.
+	 * @requires formatters != null && no element of formatters is null
+	 * @effects Constructs a new MultiRouteFormatter giving directions in the
+	 * 			formats of formatters, in order.
+	 */
+	public MultiRouteFormatter(RouteFormatter... formatters) {
+		this.formatters = formatters.clone();
+	}
+
+	/**
+	 * Returns the number of formats of this.
+	 * @return the number of RouteFormatters this was constructed with.
+	 */
+	public int getFormatCount() {
+		return this.formatters.length;
+	}
+
+	/**
+	 * Gives directions for following this Route in every format of this.
+	 * @requires route != null &&
+	 * 			0 <= heading < 360
+	 * @param route the route for which to print directions.
+	 * @param heading the initial heading.
+	 * @return an array d of getFormatCount() Strings, where d[i] is
+	 * 		   formatters[i].computeDirections(route, heading).
+	 */
+	public String[] computeDirections(Route route, double heading) {
+		StringBuilder[] outs = new StringBuilder[this.formatters.length];
+		for (int i = 0; i < outs.length; i++) {
+			outs[i] = new StringBuilder();
+		}
+		StringBuilderAction.perform(() -> this.computeDirections(route, heading, outs));
+		String[] directions = new String[outs.length];
+		for (int i = 0; i < outs.length; i++) {
+			directions[i] = outs[i].toString();
+		}
+		return directions;
+	}
+
+	/**
+	 * Gives directions for following this Route in every format of this,
+	 * appending them line by line to a destination per format.
+	 * @requires route != null && outs != null &&
+	 * 			outs.length = getFormatCount() && no element of outs is null &&
+	 * 			0 <= heading < 360
+	 * @param route the route for which to print directions.
+	 * @param heading the initial heading.
+	 * @param outs the destinations of the directions, one per format.
+	 * @modifies the elements of outs
+	 * @effects appends to outs[i] the directions that
+	 * 			formatters[i].computeDirections(route, heading) returns, for
+	 * 			every i. The lines for a feature are appended to every
+	 * 			destination before those for the next feature.
+	 * @throws IOException if an element of outs throws IOException; the
+	 * 		   lines appended before it are left in outs.
+	 * @throws IllegalArgumentException if outs.length != getFormatCount().
+	 */
+	public void computeDirections(Route route, double heading, Appendable... outs) throws IOException {
+		if (outs.length != this.formatters.length) {
+			throw new IllegalArgumentException("Expected " + this.formatters.length
+					+ " destinations, got " + outs.length);
+		}
+		Iterator<GeoFeature> geoFeature = route.getGeoFeatures();
+		double routeHeading = heading;
+		while (geoFeature.hasNext()) {
+			GeoFeature gf = geoFeature.next();
+			RouteFormatter.Turn turn = RouteFormatter.getTurn(routeHeading, gf.getStartHeading());
+			for (int i = 0; i < this.formatters.length; i++) {
+				this.formatters[i].appendLine(gf, routeHeading, turn, outs[i]);
+			}
+			routeHeading = gf.getEndHeading();
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package homework1;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Random;
+
+public class MultiRouteFormatterTest {
+
+	// a formatter that ignores the turn
+	private static class NameFormatter extends RouteFormatter {
+		protected void appendLine(GeoFeature geoFeature, double origHeading, Turn turn, Appendable out)
+				throws IOException {
+			out.append(geoFeature.getName()).append('\n');
+		}
+	}
+
+	// a formatter that names the turn
+	private static class TurnFormatter extends RouteFormatter {
+		protected void appendLine(GeoFeature geoFeature, double origHeading, Turn turn, Appendable out)
+				throws IOException {
+			out.append(turn.name()).append(' ').append(geoFeature.getName()).append('\n');
+		}
+	}
+
+	// a DrivingRouteFormatter that checks the turns it is given
+	private static class CheckingFormatter extends DrivingRouteFormatter {
+		boolean ok = true;
+
+		protected void appendLine(GeoFeature geoFeature, double origHeading, Turn turn, Appendable out)
+				throws IOException {
+			this.ok &= turn == getTurn(origHeading, geoFeature.getStartHeading());
+			super.appendLine(geoFeature, origHeading, turn, out);
+		}
+	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	// a random walk that often continues on the same street
+	private static Route randomRoute(Random random, int segments) {
+		GeoPoint p = new GeoPoint(32780000, 35010000);
+		Route route = null;
+		int street = 0;
+		for (int i = 0; i < segments; i++) {
+			if (random.nextInt(3) == 0) {
+				street++;
+			}
+			GeoPoint q = new GeoPoint(p.getLatitude() + random.nextInt(2001) - 1000,
+									  p.getLongitude() + random.nextInt(2001) - 1000);
+			GeoSegment gs = new GeoSegment("Street " + street, p, q);
+			route = (route == null) ? new Route(gs) : route.addSegment(gs);
+			p = q;
+		}
+		return route;
+	}
+
+
+  	public void test() {
+  		Route route = randomRoute(new Random(24), 200);
+  		CheckingFormatter checking = new CheckingFormatter();
+  		RouteFormatter[] formatters = { new DrivingRouteFormatter(), new WalkingRouteFormatter(),
+  			new NameFormatter(), checking };
+  		MultiRouteFormatter multi = new MultiRouteFormatter(formatters);
+
+  		show("computeDirections()");
+  		show("One format per formatter", multi.getFormatCount() == 4);
+  		String[] directions = multi.computeDirections(route, 45);
+  		boolean ok = directions.length == formatters.length;
+  		for (int i = 0; i < formatters.length; i++) {
+  			ok &= directions[i].equals(formatters[i].computeDirections(route, 45));
+  		}
+  		show("Every format matches its formatter", ok);
+  		show("Formatters are given the classified turn", checking.ok);
+  		TurnFormatter turns = new TurnFormatter();
+  		GeoFeature first = route.getGeoFeatures().next();
+  		show("Formatter implementing appendLine() gives the same text everywhere",
+  			new MultiRouteFormatter(turns).computeDirections(route, 45)[0].equals(turns.computeDirections(route, 45))
+  			&& turns.computeDirections(route, 45).startsWith(turns.computeLine(first, 45))
+  			&& turns.computeLine(first, 45).equals(
+  				RouteFormatter.getTurn(45, first.getStartHeading()).name() + " " + first.getName() + "\n"));
+
+  		StringWriter driving = new StringWriter();
+  		StringBuilder walking = new StringBuilder();
+  		StringBuilder names = new StringBuilder();
+  		StringBuilder checked = new StringBuilder();
+  		try {
+  			multi.computeDirections(route, 45, driving, walking, names, checked);
+  		} catch (IOException e) {
+  			driving.write("IOException");
+  		}
+  		show("Streamed formats match",
+  			driving.toString().equals(directions[0]) && walking.toString().equals(directions[1])
+  			&& names.toString().equals(directions[2]) && checked.toString().equals(directions[3]));
+
+  		boolean thrown = false;
+  		try {
+  			multi.computeDirections(route, 45, driving, walking);
+  		} catch (IllegalArgumentException e) {
+  			thrown = true;
+  		} catch (IOException e) {
+  			thrown = false;
+  		}
+  		show("Wrong number of destinations is rejected", thrown);
+
+  		show("No formats");
+  		show("Empty formatter gives no directions",
+  			new MultiRouteFormatter().computeDirections(route, 45).length == 0);
+  	}
+
+
+	public static void main(String[] args) {
+		MultiRouteFormatterTest multiRouteFormatterTest = new MultiRouteFormatterTest();
+		multiRouteFormatterTest.test();
+	}
+}
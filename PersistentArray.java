@@ -0,0 +1,229 @@
+package homework1;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A PersistentArray is an immutable sequence of elements that supports
+ * appending an element in amortized constant time, while every older
+ * version stays valid and unchanged.
+ * <p>
+ * Versions that grow from each other share one backing array. Each version
+ * only sees a range of <tt>size</tt> slots of that array, starting at
+ * <tt>offset</tt>, and the slots it sees are never written again. Appending
+ * to a version whose range ends at the last claimed slot of the backing array
+ * writes the next free slot in place; appending to any other version (or to
+ * a full array) copies the visible slots into a new, larger backing array
+ * first. Building a sequence of n elements one at a time therefore costs O(n)
+ * in total, as it would with an ArrayList.
+ * <p>
+ * A slice of a PersistentArray shares its backing array, so, for example,
+ * the segments of a GeoFeature can be a slice of the segments of the Route
+ * that contains it.
+ * <p>
+ * PersistentArrays are safe for use by multiple threads.
+ */
+final class PersistentArray<E> implements Iterable<E> {
+
+	// The backing array, shared by all the versions grown from each other.
+	private final Object[] elements;
+
+	// The slots of elements visible to this version are
+	// [offset, offset + size).
+	private final int offset;
+	private final int size;
+
+	// Sequences at least this long are reduced in parallel by sum().
+	static final int PARALLEL_THRESHOLD = 8192;
+
+	// Number of slots of elements claimed so far by any version. Shared by
+	// all the versions using the same backing array.
+	private final AtomicInteger used;
+
+	private PersistentArray(Object[] elements, int offset, int size, AtomicInteger used) {
+		this.elements = elements;
+		this.offset = offset;
+		this.size = size;
+		this.used = used;
+	}
+
+	/**
+	 * Creates an empty PersistentArray.
+	 *
+	 * @return a new PersistentArray a such that a = []
+	 **/
+	static <E> PersistentArray<E> empty() {
+		return new PersistentArray<E>(new Object[4], 0, 0, new AtomicInteger(0));
+	}
+
+	/**
+	 * Creates a PersistentArray holding a single element.
+	 *
+	 * @return a new PersistentArray a such that a = [e]
+	 **/
+	static <E> PersistentArray<E> of(E e) {
+		Object[] elements = new Object[4];
+		elements[0] = e;
+		return new PersistentArray<E>(elements, 0, 1, new AtomicInteger(1));
+	}
+
+	/**
+	 * Creates a PersistentArray backed by the given array, without copying it.
+	 *
+	 * @requires elements != null && no element of elements is null && elements
+	 *           is not modified after this call
+	 * @return a new PersistentArray a such that a = elements
+	 **/
+	static <E> PersistentArray<E> wrap(Object[] elements) {
+		return new PersistentArray<E>(elements, 0, elements.length, new AtomicInteger(elements.length));
+	}
+
+	/**
+	 * Creates a new PersistentArray that is equal to this with e appended to its
+	 * end. This is left unchanged.
+	 *
+	 * @return a new PersistentArray a such that a = this + [e]
+	 **/
+	PersistentArray<E> append(E e) {
+		int end = this.offset + this.size;
+		if (end < this.elements.length && this.used.compareAndSet(end, end + 1)) {
+			// no other version can see the slot after this one: claim it
+			this.elements[end] = e;
+			return new PersistentArray<E>(this.elements, this.offset, this.size + 1, this.used);
+		}
+		Object[] copy = Arrays.copyOfRange(this.elements, this.offset, this.offset + Math.max(4, this.size * 2));
+		copy[this.size] = e;
+		return new PersistentArray<E>(copy, 0, this.size + 1, new AtomicInteger(this.size + 1));
+	}
+
+	/**
+	 * Returns a view of a range of this, sharing its backing array.
+	 *
+	 * @requires 0 <= from <= to <= this.size()
+	 * @return a PersistentArray a such that a = [this[from], ..., this[to - 1]]
+	 **/
+	PersistentArray<E> slice(int from, int to) {
+		if (from < 0 || to > this.size || from > to) {
+			throw new IndexOutOfBoundsException("Range: [" + from + ", " + to + "), Size: " + this.size);
+		}
+		return new PersistentArray<E>(this.elements, this.offset + from, to - from, this.used);
+	}
+
+	/**
+	 * Returns the number of elements in this.
+	 *
+	 * @return the number of elements in this.
+	 **/
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the element at the given index.
+	 *
+	 * @requires 0 <= index < this.size()
+	 * @return the element at position index of this.
+	 **/
+	@SuppressWarnings("unchecked")
+	E get(int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+		return (E) this.elements[this.offset + index];
+	}
+
+	/**
+	 * Returns the first element of this.
+	 *
+	 * @requires this.size() > 0
+	 * @return the first element of this.
+	 **/
+	E getFirst() {
+		return this.get(0);
+	}
+
+	/**
+	 * Returns the last element of this.
+	 *
+	 * @requires this.size() > 0
+	 * @return the last element of this.
+	 **/
+	E getLast() {
+		return this.get(this.size - 1);
+	}
+
+	/**
+	 * Returns an Iterator over the elements of this, in order. The Iterator
+	 * does not support remove().
+	 *
+	 * @return an Iterator over the elements of this.
+	 **/
+	public Iterator<E> iterator() {
+		return new Iterator<E>() {
+			private int next = PersistentArray.this.offset;
+			private final int end = PersistentArray.this.offset + PersistentArray.this.size;
+
+			public boolean hasNext() {
+				return this.next < this.end;
+			}
+
+			@SuppressWarnings("unchecked")
+			public E next() {
+				if (this.next >= this.end) {
+					throw new NoSuchElementException();
+				}
+				return (E) PersistentArray.this.elements[this.next++];
+			}
+		};
+	}
+
+	/**
+	 * Returns a Spliterator over the elements of this, in order. The
+	 * Spliterator reads the backing array directly and reports the
+	 * characteristics ORDERED, SIZED, SUBSIZED, IMMUTABLE and NONNULL.
+	 *
+	 * @return a Spliterator over the elements of this.
+	 **/
+	public Spliterator<E> spliterator() {
+		return Spliterators.spliterator(this.elements, this.offset, this.offset + this.size,
+				Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL);
+	}
+
+	/**
+	 * Returns a sequential Stream over the elements of this, in order.
+	 *
+	 * @return a sequential Stream over the elements of this.
+	 **/
+	Stream<E> stream() {
+		return StreamSupport.stream(this.spliterator(), false);
+	}
+
+	/**
+	 * Sums a function over the elements of this. Sequences of at least
+	 * PARALLEL_THRESHOLD elements are reduced in parallel on the common
+	 * ForkJoinPool, splitting the backing array into balanced halves; the
+	 * result may then differ from a sequential sum in its last bits.
+	 *
+	 * @requires f != null && f has no side effects
+	 * @return sum(0 <= i < this.size()) . f(this[i])
+	 **/
+	double sum(ToDoubleFunction<? super E> f) {
+		if (this.size >= PARALLEL_THRESHOLD) {
+			return StreamSupport.stream(this.spliterator(), true).mapToDouble(f).sum();
+		}
+		double sum = 0;
+		for (int i = this.offset; i < this.offset + this.size; i++) {
+			@SuppressWarnings("unchecked")
+			E e = (E) this.elements[i];
+			sum += f.applyAsDouble(e);
+		}
+		return sum;
+	}
+}
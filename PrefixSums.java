@@ -0,0 +1,101 @@
+package homework1;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A PrefixSums is an immutable sequence of the running totals of a sequence
+ * of values: its i'th element is the sum of the first i values, so its first
+ * element is always 0. Appending a value takes amortized constant time, and
+ * every older version stays valid and unchanged.
+ * <p>
+ * Like PersistentArray, versions that grow from each other share one backing
+ * array, and a version only sees its first <tt>size</tt> slots. Appending to
+ * the version that claimed the last slot of the backing array writes the next
+ * free slot in place; appending to any other version, or to a full array,
+ * copies the totals into a new, larger backing array first. So the running
+ * totals of a Route grown one segment at a time are extended, not rebuilt,
+ * by every addSegment().
+ * <p>
+ * PrefixSums are safe for use by multiple threads.
+ */
+final class PrefixSums {
+
+	// The backing array, shared by all the versions grown from each other.
+	private final double[] sums;
+
+	// The slots of sums visible to this version are [0, size).
+	private final int size;
+
+	// Number of slots of sums claimed so far by any version. Shared by all
+	// the versions using the same backing array.
+	private final AtomicInteger used;
+
+	private PrefixSums(double[] sums, int size, AtomicInteger used) {
+		this.sums = sums;
+		this.size = size;
+		this.used = used;
+	}
+
+	/**
+	 * Creates the running totals of no values.
+	 *
+	 * @return a new PrefixSums s such that s = [0]
+	 **/
+	static PrefixSums empty() {
+		return new PrefixSums(new double[4], 1, new AtomicInteger(1));
+	}
+
+	/**
+	 * Creates a PrefixSums backed by the given array, without copying it.
+	 *
+	 * @requires sums != null && sums.length > 0 && sums[0] = 0 && sums is
+	 *           nondecreasing && sums is not modified after this call
+	 * @return a new PrefixSums s such that s = sums
+	 **/
+	static PrefixSums wrap(double[] sums) {
+		return new PrefixSums(sums, sums.length, new AtomicInteger(sums.length));
+	}
+
+	/**
+	 * Creates a new PrefixSums that extends this by one more value. This is
+	 * left unchanged.
+	 *
+	 * @requires value >= 0
+	 * @return a new PrefixSums s such that s = this + [this.getLast() + value]
+	 **/
+	PrefixSums append(double value) {
+		int end = this.size;
+		double total = this.sums[end - 1] + value;
+		if (end < this.sums.length && this.used.compareAndSet(end, end + 1)) {
+			// no other version can see the slot after this one: claim it
+			this.sums[end] = total;
+			return new PrefixSums(this.sums, end + 1, this.used);
+		}
+		double[] copy = Arrays.copyOf(this.sums, Math.max(4, end * 2));
+		copy[end] = total;
+		return new PrefixSums(copy, end + 1, new AtomicInteger(end + 1));
+	}
+
+	/**
+	 * Returns the number of totals in this.
+	 *
+	 * @return the number of totals in this, one more than the number of values.
+	 **/
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the total at the given index.
+	 *
+	 * @requires 0 <= index < this.size()
+	 * @return the sum of the first index values.
+	 **/
+	double get(int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+		return this.sums[index];
+	}
+}
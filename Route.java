@@ -1,7 +1,8 @@
 package homework1;
 
-import java.util.LinkedList;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
 
 /**
  * A Route is a path that traverses arbitrary GeoSegments, regardless of their
@@ -35,7 +36,33 @@ import java.util.Iterator;
  **/
 public class Route {
 
-	private final LinkedList<GeoFeature> geoFeatures;
+	// All the segments of the route, in order. The segments of every
+	// feature are a slice of this array, and routes grown from each other by
+	// addSegment() share its storage.
+	private final PersistentArray<GeoSegment> geoSegments;
+
+	// All the features of the route but the last one, which is the only one
+	// that addSegment() may still extend.
+	private final PersistentArray<GeoFeature> completedFeatures;
+	private final GeoFeature lastFeature;
+
+	// Index, in geoSegments, of the first segment of lastFeature.
+	private final int lastFeatureStart;
+
+	// Running totals, computed once when the route is built.
+	private final double length;
+	private final BoundingBox boundingBox;
+	// combined hash code of completedFeatures
+	private final int completedFeaturesHash;
+	private final int hash;
+
+	// Cumulative-distance index: distances[i] is the total length of the
+	// segments [0, i), and featureStarts[f] is the index of the first segment
+	// of feature f, for every feature but the last one, which starts at
+	// lastFeatureStart. Routes grown from each other by addSegment() extend
+	// and share both, as they do their segments.
+	private final PrefixSums distances;
+	private final PrefixSums featureStarts;
 
 	/**
 	 * Constructs a new Route.
@@ -45,11 +72,52 @@ public class Route {
 	 *          r.endHeading = gs.heading && r.start = gs.p1 && r.end = gs.p2
 	 **/
 	public Route(GeoSegment gs) {
-		this.geoFeatures = new LinkedList<GeoFeature>();
-		this.geoFeatures.add(new GeoFeature(gs));
+		this.geoSegments = PersistentArray.of(gs);
+		this.completedFeatures = PersistentArray.empty();
+		this.lastFeature = new GeoFeature(this.geoSegments, gs.getLength(), new BoundingBox(gs.getP1(), gs.getP2()),
+				GeoFeature.extendHash(GeoFeature.EMPTY_HASH, gs));
+		this.lastFeatureStart = 0;
+		this.length = gs.getLength();
+		this.boundingBox = this.lastFeature.getBoundingBox();
+		this.completedFeaturesHash = 1;
+		this.hash = combineFeaturesHash(this.completedFeaturesHash, this.lastFeature);
+		this.distances = PrefixSums.empty().append(this.length);
+		this.featureStarts = PrefixSums.empty();
+		this.checkRep();
+	}
+
+	/**
+	 * Constructs a new Route from its parts.
+	 * 
+	 * @requires the arguments satisfy the representation invariant of Route, as
+	 *           described by the comments on its fields
+	 **/
+	Route(PersistentArray<GeoSegment> geoSegments, PersistentArray<GeoFeature> completedFeatures,
+			GeoFeature lastFeature, int lastFeatureStart, double length, BoundingBox boundingBox,
+			int completedFeaturesHash, PrefixSums distances, PrefixSums featureStarts) {
+		this.geoSegments = geoSegments;
+		this.completedFeatures = completedFeatures;
+		this.lastFeature = lastFeature;
+		this.lastFeatureStart = lastFeatureStart;
+		this.length = length;
+		this.boundingBox = boundingBox;
+		this.completedFeaturesHash = completedFeaturesHash;
+		this.hash = combineFeaturesHash(completedFeaturesHash, lastFeature);
+		this.distances = distances;
+		this.featureStarts = featureStarts;
 		this.checkRep();
 	}
 
+	/**
+	 * Combines the hash code of the features preceding a feature with the hash
+	 * code of the feature.
+	 * 
+	 * @return the combined hash code of the features [previous..., geoFeature]
+	 **/
+	static int combineFeaturesHash(int previousFeaturesHash, GeoFeature geoFeature) {
+		return 37 * previousFeaturesHash + geoFeature.hashCode();
+	}
+
 	/**
 	 * Returns location of the start of the route.
 	 * 
@@ -57,7 +125,7 @@ public class Route {
 	 **/
 	public GeoPoint getStart() {
 		this.checkRep();
-		return this.geoFeatures.getFirst().getStart();
+		return this.getFirstFeature().getStart();
 	}
 
 	/**
@@ -67,7 +135,7 @@ public class Route {
 	 **/
 	public GeoPoint getEnd() {
 		this.checkRep();
-		return this.geoFeatures.getLast().getEnd();
+		return this.lastFeature.getEnd();
 	}
 
 	/**
@@ -78,7 +146,7 @@ public class Route {
 	 **/
 	public double getStartHeading() {
 		this.checkRep();
-		return this.geoFeatures.getFirst().getStartHeading();
+		return this.getFirstFeature().getStartHeading();
 	}
 
 	/**
@@ -89,7 +157,7 @@ public class Route {
 	 **/
 	public double getEndHeading() {
 		this.checkRep();
-		return this.geoFeatures.getLast().getEndHeading();
+		return this.lastFeature.getEndHeading();
 	}
 
 	/**
@@ -101,13 +169,66 @@ public class Route {
 	 **/
 	public double getLength() {
 		this.checkRep();
-		Iterator<GeoFeature> geoFeaure = this.geoFeatures.iterator();
-		double length = 0;
-		while (geoFeaure.hasNext()) {
-			length += geoFeaure.next().getLength();
-		}
+		return this.length;
+	}
+
+	/**
+	 * Returns the number of segments in the route.
+	 * 
+	 * @return the number of GeoSegments that make up this route.
+	 **/
+	public int getSegmentCount() {
+		this.checkRep();
+		return this.geoSegments.size();
+	}
+
+	/**
+	 * Returns the number of features in the route.
+	 *
+	 * @return the number of GeoFeatures returned by getGeoFeatures().
+	 **/
+	public int getFeatureCount() {
+		this.checkRep();
+		return this.completedFeatures.size() + 1;
+	}
+
+	/**
+	 * Returns a feature of the route, in constant time.
+	 *
+	 * @requires 0 <= index < getFeatureCount()
+	 * @return the index'th GeoFeature returned by getGeoFeatures().
+	 * @throws IndexOutOfBoundsException if index is out of range.
+	 **/
+	public GeoFeature getGeoFeature(int index) {
 		this.checkRep();
-		return length;
+		return (index == this.completedFeatures.size()) ? this.lastFeature : this.completedFeatures.get(index);
+	}
+
+	/**
+	 * Returns the bounding box of the route.
+	 * 
+	 * @return the smallest BoundingBox containing every endpoint of the segments
+	 *         of this route.
+	 **/
+	public BoundingBox getBoundingBox() {
+		this.checkRep();
+		return this.boundingBox;
+	}
+
+	/**
+	 * Returns total length of the route according to a distance model.
+	 * 
+	 * @requires model != null
+	 * @return total length of the route, in kilometers, where the length of each
+	 *         segment is computed using model. Routes of many segments are
+	 *         summed in parallel, so the result may differ from a sequential sum
+	 *         in its last bits.
+	 * @see homework1.DistanceModel
+	 **/
+	public double getLength(DistanceModel model) {
+		this.checkRep();
+		// long routes are summed in parallel
+		return this.geoSegments.sum(gs -> gs.getLength(model));
 	}
 
 	/**
@@ -119,18 +240,197 @@ public class Route {
 	 **/
 	public Route addSegment(GeoSegment gs) {
 		this.checkRep();
-		Route route = new Route(gs);
-		route.geoFeatures.removeFirst();
-		route.geoFeatures.addAll(this.geoFeatures);
-		if (route.geoFeatures.getLast().getName().equals(gs.getName())) {
-			route.geoFeatures.add(route.geoFeatures.getLast().addSegment(gs));
+		PersistentArray<GeoSegment> geoSegments = this.geoSegments.append(gs);
+		PrefixSums distances = this.distances.append(gs.getLength());
+		int end = geoSegments.size();
+		Route route;
+		if (this.lastFeature.getNameId() == gs.getNameId()) {
+			GeoFeature lastFeature = new GeoFeature(this.lastFeature, geoSegments.slice(this.lastFeatureStart, end));
+			route = new Route(geoSegments, this.completedFeatures, lastFeature, this.lastFeatureStart,
+					this.length + gs.getLength(), this.boundingBox.extend(gs.getP2()), this.completedFeaturesHash,
+					distances, this.featureStarts);
 		} else {
-			route.geoFeatures.add(new GeoFeature(gs));
+			GeoFeature lastFeature = new GeoFeature(geoSegments.slice(end - 1, end), gs.getLength(),
+					new BoundingBox(gs.getP1(), gs.getP2()), GeoFeature.extendHash(GeoFeature.EMPTY_HASH, gs));
+			route = new Route(geoSegments, this.completedFeatures.append(this.lastFeature), lastFeature, end - 1,
+					this.length + gs.getLength(), this.boundingBox.extend(gs.getP2()),
+					combineFeaturesHash(this.completedFeaturesHash, this.lastFeature),
+					distances, this.featureStarts.append(this.lastFeature.getSegmentCount()));
 		}
 		this.checkRep();
 		return route;
 	}
 
+	/**
+	 * Returns the distance along the route to the start of a segment.
+	 * 
+	 * @requires 0 <= index <= this.getSegmentCount()
+	 * @return the total length, in kilometers, of the segments preceding the
+	 *         segment at position index of this.geoSegments. For index =
+	 *         this.getSegmentCount() this is the length of the route.
+	 * @throws IndexOutOfBoundsException if index is out of range
+	 **/
+	public double distanceAtSegment(int index) {
+		this.checkRep();
+		if (index < 0 || index > this.geoSegments.size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Segments: " + this.geoSegments.size());
+		}
+		return this.distances.get(index);
+	}
+
+	/**
+	 * Finds the position at a given distance along the route, in O(log n) time
+	 * for a route of n segments.
+	 * 
+	 * @requires 0 <= km <= this.length
+	 * @return the RouteLocation at distance km from the start of this route. When
+	 *         km falls on the boundary between two segments, the location is
+	 *         at the start of the later one.
+	 * @throws IllegalArgumentException if km is out of range
+	 **/
+	public RouteLocation locate(double km) {
+		this.checkRep();
+		if (!(km >= 0 && km <= this.length)) {
+			throw new IllegalArgumentException("Distance " + km + " is not on a route of length " + this.length);
+		}
+		int index = this.segmentStartingAt(km);
+		GeoSegment gs = this.geoSegments.get(index);
+		GeoPoint point = interpolate(gs, km - this.distances.get(index));
+		return new RouteLocation(km, index, this.featureOfSegment(index), gs, point);
+	}
+
+	/**
+	 * Creates a new route that covers part of this route.
+	 * 
+	 * @requires 0 <= fromKm < toKm <= this.length
+	 * @return a new Route r that follows this route from distance fromKm to
+	 *         distance toKm along it. The first and last segments of r are cut
+	 *         at the interpolated locations of fromKm and toKm, and keep the
+	 *         names of the segments they were cut from. Runs in O(log n + k)
+	 *         time, where k is the number of segments of r.
+	 * @throws IllegalArgumentException if fromKm or toKm is out of range
+	 **/
+	public Route subRoute(double fromKm, double toKm) {
+		this.checkRep();
+		if (!(fromKm >= 0 && fromKm < toKm && toKm <= this.length)) {
+			throw new IllegalArgumentException(
+					"Range [" + fromKm + ", " + toKm + "] is not on a route of length " + this.length);
+		}
+		int first = this.segmentStartingAt(fromKm);
+		int last = this.segmentEndingAt(toKm);
+		GeoSegment firstSegment = this.geoSegments.get(first);
+		GeoSegment lastSegment = this.geoSegments.get(last);
+		GeoPoint start = interpolate(firstSegment, fromKm - this.distances.get(first));
+		GeoPoint end = interpolate(lastSegment, toKm - this.distances.get(last));
+		if (first == last) {
+			return new Route(new GeoSegment(firstSegment.getName(), start, end));
+		}
+		RouteBuilder builder = new RouteBuilder();
+		if (!start.equals(firstSegment.getP2())) {
+			builder.addSegment(start.equals(firstSegment.getP1()) ? firstSegment
+					: new GeoSegment(firstSegment.getName(), start, firstSegment.getP2()));
+		}
+		for (int i = first + 1; i < last; i++) {
+			builder.addSegment(this.geoSegments.get(i));
+		}
+		if (!end.equals(lastSegment.getP1()) || builder.getSegmentCount() == 0) {
+			builder.addSegment(end.equals(lastSegment.getP2()) ? lastSegment
+					: new GeoSegment(lastSegment.getName(), lastSegment.getP1(), end));
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Returns a simplified copy of this route, made of fewer segments that
+	 * follow the same course.
+	 * 
+	 * @requires toleranceKm >= 0
+	 * @return a new Route r made of the features f.simplify(toleranceKm), in
+	 *         order, for every feature f of this. r has the same features,
+	 *         names, start, end and headings at every feature boundary as
+	 *         this, so RouteFormatter gives the same turns for both. If no
+	 *         feature can be simplified, r is this.
+	 * @see homework1.GeoFeature#simplify(double)
+	 **/
+	public Route simplify(double toleranceKm) {
+		this.checkRep();
+		RouteBuilder builder = new RouteBuilder();
+		boolean simplified = false;
+		Iterator<GeoFeature> features = this.getGeoFeatures();
+		while (features.hasNext()) {
+			GeoFeature feature = features.next();
+			GeoFeature simple = feature.simplify(toleranceKm);
+			simplified |= (simple != feature);
+			Iterator<GeoSegment> segments = simple.getGeoSegments();
+			while (segments.hasNext()) {
+				builder.addSegment(segments.next());
+			}
+		}
+		return simplified ? builder.build() : this;
+	}
+
+	// Returns the index of the feature containing the segment at index.
+	private int featureOfSegment(int index) {
+		int lo = 0;
+		int hi = this.featureStarts.size() - 1;
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if (this.featureStarts.get(mid) <= index) {
+				lo = mid;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		return lo;
+	}
+
+	// Returns the largest segment index i such that distances[i] <= km.
+	private int segmentStartingAt(double km) {
+		int lo = 0;
+		int hi = this.distances.size() - 2;
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if (this.distances.get(mid) <= km) {
+				lo = mid;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		return lo;
+	}
+
+	// Returns the smallest segment index i such that distances[i + 1] >= km.
+	private int segmentEndingAt(double km) {
+		int lo = 0;
+		int hi = this.distances.size() - 2;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (this.distances.get(mid + 1) >= km) {
+				hi = mid;
+			} else {
+				lo = mid + 1;
+			}
+		}
+		return lo;
+	}
+
+	// Returns the point at the given distance, in kilometers, from gs.p1
+	// along gs, rounded to millionths of degrees.
+	private static GeoPoint interpolate(GeoSegment gs, double km) {
+		double length = gs.getLength();
+		double t = (length > 0) ? Math.min(1.0, Math.max(0.0, km / length)) : 0.0;
+		if (t == 0.0) {
+			return gs.getP1();
+		}
+		if (t == 1.0) {
+			return gs.getP2();
+		}
+		GeoPoint p1 = gs.getP1();
+		GeoPoint p2 = gs.getP2();
+		return new GeoPoint(p1.getLatitude() + (int) Math.round(t * ((long) p2.getLatitude() - p1.getLatitude())),
+				p1.getLongitude() + (int) Math.round(t * ((long) p2.getLongitude() - p1.getLongitude())));
+	}
+
 	/**
 	 * Returns an Iterator of GeoFeature objects. The concatenation of the
 	 * GeoFeatures, in order, is equivalent to this route. No two consecutive
@@ -154,10 +454,25 @@ public class Route {
 	 **/
 	public Iterator<GeoFeature> getGeoFeatures() {
 		this.checkRep();
-		@SuppressWarnings("unchecked")
-		LinkedList<GeoFeature> copyOfList = (LinkedList<GeoFeature>) this.geoFeatures.clone();
-		this.checkRep();
-		return copyOfList.iterator();
+		final Iterator<GeoFeature> completed = this.completedFeatures.iterator();
+		return new Iterator<GeoFeature>() {
+			private boolean lastReturned = false;
+
+			public boolean hasNext() {
+				return completed.hasNext() || !this.lastReturned;
+			}
+
+			public GeoFeature next() {
+				if (completed.hasNext()) {
+					return completed.next();
+				}
+				if (this.lastReturned) {
+					throw new NoSuchElementException();
+				}
+				this.lastReturned = true;
+				return Route.this.lastFeature;
+			}
+		};
 	}
 
 	/**
@@ -179,18 +494,40 @@ public class Route {
 	 **/
 	public Iterator<GeoSegment> getGeoSegments() {
 		this.checkRep();
-		Iterator<GeoFeature> geoFeaure = this.geoFeatures.iterator();
-		LinkedList<GeoSegment> copyOfList = new LinkedList<GeoSegment>();
-		while (geoFeaure.hasNext()) {
-			Iterator<GeoSegment> gs = geoFeaure.next().getGeoSegments();
-			while (gs.hasNext()) {
-				GeoSegment segment = gs.next();
-				GeoSegment copyOfSeg = new GeoSegment(segment.getName(), segment.getP1(), segment.getP2());
-				copyOfList.add(copyOfSeg);
-			}
-		}
+		// geoSegments is immutable and its Iterator does not support remove(),
+		// so there is no need to copy it
+		return this.geoSegments.iterator();
+	}
+
+	/**
+	 * Returns a sequential Stream of the GeoFeature objects of this route, in
+	 * order. The Stream reads the features of this directly, without copying
+	 * them, and reports the characteristics ORDERED, SIZED, IMMUTABLE and
+	 * NONNULL.
+	 * 
+	 * @return a Stream of the GeoFeatures a[0], ..., a[n - 1] described by
+	 *         getGeoFeatures().
+	 * @see homework1.Route#getGeoFeatures()
+	 **/
+	public Stream<GeoFeature> features() {
 		this.checkRep();
-		return copyOfList.iterator();
+		return Stream.concat(this.completedFeatures.stream(), Stream.of(this.lastFeature));
+	}
+
+	/**
+	 * Returns a sequential Stream of the GeoSegment objects of this route, in
+	 * order. The Stream reads the segments of this directly, without copying
+	 * them, and reports the characteristics ORDERED, SIZED, SUBSIZED, IMMUTABLE
+	 * and NONNULL. Its Spliterator splits the segments into balanced halves, so
+	 * <tt>segments().parallel()</tt> spreads the work evenly across cores.
+	 * 
+	 * @return a Stream of the GeoSegments a[0], ..., a[n - 1] described by
+	 *         getGeoSegments().
+	 * @see homework1.Route#getGeoSegments()
+	 **/
+	public Stream<GeoSegment> segments() {
+		this.checkRep();
+		return this.geoSegments.stream();
 	}
 
 	/**
@@ -200,44 +537,38 @@ public class Route {
 	 *         contain the same elements in the same order).
 	 **/
 	public boolean equals(Object o) {
-		this.checkRep();
-		if (o != null && o instanceof GeoFeature) {
-			Iterator<GeoFeature> geoFeaure = this.geoFeatures.iterator();
-			Iterator<GeoFeature> oGeoFeaure = ((Route) o).getGeoFeatures();
-			while (geoFeaure.hasNext() || oGeoFeaure.hasNext()) {
-				if (!(oGeoFeaure.hasNext() && geoFeaure.hasNext())) {
-					if (!oGeoFeaure.next().equals(geoFeaure.next())) {
-						this.checkRep();
-						return false;
-					}
-				}
-			}
-			this.checkRep();
+		if (this == o) {
 			return true;
 		}
 		this.checkRep();
-		return false;
+		if (!(o instanceof Route)) {
+			return false;
+		}
+		Route other = (Route) o;
+		// Segments are grouped into features by their names alone, so two
+		// routes have the same features exactly when they have the same
+		// segments. Equal routes have equal hash codes, so most unequal ones
+		// are told apart without walking their segments.
+		if (this.hash != other.hash || this.geoSegments.size() != other.geoSegments.size()) {
+			return false;
+		}
+		for (int i = 0; i < this.geoSegments.size(); i++) {
+			if (!this.geoSegments.get(i).equals(other.geoSegments.get(i))) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	/**
-	 * Returns a hash code for this.
+	 * Returns a hash code for this. The hash code combines the hash codes of
+	 * the features of this, which are computed as they are built.
 	 * 
 	 * @return a hash code for this.
 	 **/
 	public int hashCode() {
 		this.checkRep();
-		int hashcode = 1;
-		hashcode = 37 * hashcode + this.getStart().hashCode();
-		hashcode = 37 * hashcode + this.getEnd().hashCode();
-		hashcode = 37 * hashcode + Double.valueOf(this.getLength()).hashCode();
-		hashcode = 37 * hashcode + Double.valueOf(this.getEndHeading()).hashCode();
-		hashcode = 37 * hashcode + Double.valueOf(this.getStartHeading()).hashCode();
-		Iterator<GeoFeature> geoFeaure = this.getGeoFeatures();
-		while (geoFeaure.hasNext()) {
-			hashcode = 37 * hashcode + geoFeaure.next().hashCode();
-		}
-		this.checkRep();
-		return hashcode;
+		return this.hash;
 	}
 
 	/**
@@ -247,17 +578,26 @@ public class Route {
 	 **/
 	public String toString() {
 		this.checkRep();
-		return "Route from " + this.geoFeatures.getFirst().getName() + " to " + this.geoFeatures.getLast().getName();
+		return "Route from " + this.getFirstFeature().getName() + " to " + this.lastFeature.getName();
+	}
+
+	private GeoFeature getFirstFeature() {
+		return (this.completedFeatures.size() > 0) ? this.completedFeatures.getFirst() : this.lastFeature;
 	}
 
 	private void checkRep() {
-		assert (this.geoFeatures.size() > 0) : "Empty list of features";
-		GeoPoint head = null;
-		for (GeoFeature geoFeaure : this.geoFeatures) {
-			if (head != null) {
-				assert (geoFeaure.getStart().equals(head)) : "Non matching features";
-			}
-			head = geoFeaure.getEnd();
-		}
+		// Every route is built either by appending one segment to a route
+		// whose representation was already checked, or by a RouteBuilder that
+		// checks continuity as segments are added, so it is enough to check
+		// the joint between the last two features.
+		int completed = this.completedFeatures.size();
+		assert (this.lastFeatureStart + this.lastFeature.getSegmentCount() == this.geoSegments.size()) :
+			"Last feature does not end the route";
+		assert (completed == 0 || this.lastFeature.getStart().equals(this.completedFeatures.getLast().getEnd())) :
+			"Non matching features";
+		assert (this.distances.size() == this.geoSegments.size() + 1
+				&& this.featureStarts.size() == completed + 1
+				&& this.featureStarts.get(completed) == this.lastFeatureStart) :
+			"Index does not match the route";
 	}
 }
@@ -0,0 +1,177 @@
+package homework1;
+
+import java.util.Arrays;
+
+/**
+ * A RouteBuilder is a mutable accumulator of GeoSegments, used to build a
+ * Route in a single pass.
+ * <p>
+ * Building a long Route with repeated calls to <tt>Route.addSegment()</tt>
+ * creates an intermediate Route for every segment. A RouteBuilder instead
+ * collects the segments into an array and creates the Route, with its
+ * GeoFeatures, only when <tt>build()</tt> is called. Consecutive segments
+ * with the same name are grouped into GeoFeatures exactly as
+ * <tt>Route.addSegment()</tt> groups them, so
+ * <pre>
+ *   new RouteBuilder().addSegment(gs1).addSegment(gs2).build()
+ * </pre>
+ * is equal to <tt>new Route(gs1).addSegment(gs2)</tt>.
+ * <p>
+ * A RouteBuilder may keep being used after <tt>build()</tt>; the Routes it
+ * has already built are not affected.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   geoSegments : sequence   // the segments added so far, in order
+ * </pre>
+ **/
+public class RouteBuilder {
+
+	private GeoSegment[] geoSegments;
+	private int size;
+
+	/**
+	 * Constructs a new RouteBuilder.
+	 *
+	 * @effects Constructs a new RouteBuilder with no segments.
+	 **/
+	public RouteBuilder() {
+		this.geoSegments = new GeoSegment[16];
+		this.size = 0;
+	}
+
+	/**
+	 * Appends a segment to the route being built.
+	 *
+	 * @requires gs != null
+	 * @modifies this
+	 * @effects appends gs to the end of this.geoSegments
+	 * @throws IllegalArgumentException if this.geoSegments is not empty and gs.p1
+	 *                                  is not the end of its last segment.
+	 * @return this
+	 **/
+	public RouteBuilder addSegment(GeoSegment gs) {
+		if (this.size > 0 && !gs.getP1().equals(this.geoSegments[this.size - 1].getP2())) {
+			throw new IllegalArgumentException("Segment " + gs + " does not start at the end of the route");
+		}
+		if (this.size == this.geoSegments.length) {
+			this.geoSegments = Arrays.copyOf(this.geoSegments, this.size * 2);
+		}
+		this.geoSegments[this.size++] = gs;
+		return this;
+	}
+
+	/**
+	 * Appends segments to the route being built.
+	 *
+	 * @requires geoSegments != null && no element of geoSegments is null
+	 * @modifies this
+	 * @effects appends the elements of geoSegments, in order, to the end of
+	 *          this.geoSegments. If an exception is thrown, the segments
+	 *          preceding the offending one have been appended.
+	 * @throws IllegalArgumentException if a segment does not start at the end of
+	 *                                  the segment preceding it.
+	 * @return this
+	 **/
+	public RouteBuilder addSegments(Iterable<GeoSegment> geoSegments) {
+		for (GeoSegment gs : geoSegments) {
+			this.addSegment(gs);
+		}
+		return this;
+	}
+
+	/**
+	 * Appends segments to the route being built.
+	 *
+	 * @requires geoSegments != null && no element of geoSegments is null
+	 * @modifies this
+	 * @effects appends the elements of geoSegments, in order, to the end of
+	 *          this.geoSegments. If an exception is thrown, the segments
+	 *          preceding the offending one have been appended.
+	 * @throws IllegalArgumentException if a segment does not start at the end of
+	 *                                  the segment preceding it.
+	 * @return this
+	 **/
+	public RouteBuilder addSegments(GeoSegment... geoSegments) {
+		int required = this.size + geoSegments.length;
+		if (required > this.geoSegments.length) {
+			this.geoSegments = Arrays.copyOf(this.geoSegments, Math.max(required, this.size * 2));
+		}
+		for (GeoSegment gs : geoSegments) {
+			this.addSegment(gs);
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the number of segments added so far.
+	 *
+	 * @return the number of elements of this.geoSegments
+	 **/
+	public int getSegmentCount() {
+		return this.size;
+	}
+
+	/**
+	 * Builds an immutable Route made of the segments added so far.
+	 *
+	 * @throws IllegalStateException if no segment has been added.
+	 * @return a new Route r such that r.geoSegments = this.geoSegments, grouped
+	 *         into GeoFeatures as defined by Route.addSegment()
+	 **/
+	public Route build() {
+		if (this.size == 0) {
+			throw new IllegalStateException("A route must have at least one segment");
+		}
+		GeoSegment[] compact = Arrays.copyOf(this.geoSegments, this.size);
+		PersistentArray<GeoSegment> segments = PersistentArray.wrap(compact);
+
+		// group consecutive segments with the same name into features
+		GeoFeature[] completed = new GeoFeature[0];
+		// featureStarts[f] is the index of the first segment of feature f
+		double[] featureStarts = new double[4];
+		int completedCount = 0;
+		// distances[i] is the total length of the segments [0, i)
+		double[] distances = new double[this.size + 1];
+		int completedFeaturesHash = 1;
+		double routeLength = 0;
+		BoundingBox routeBox = null;
+		GeoFeature feature = null;
+		int featureStart = 0;
+		while (featureStart < this.size) {
+			GeoSegment first = compact[featureStart];
+			int featureEnd = featureStart + 1;
+			double length = first.getLength();
+			BoundingBox box = new BoundingBox(first.getP1(), first.getP2());
+			int hash = GeoFeature.extendHash(GeoFeature.EMPTY_HASH, first);
+			routeLength += first.getLength();
+			distances[featureStart + 1] = routeLength;
+			while (featureEnd < this.size && compact[featureEnd].getNameId() == first.getNameId()) {
+				length += compact[featureEnd].getLength();
+				routeLength += compact[featureEnd].getLength();
+				distances[featureEnd + 1] = routeLength;
+				box = box.extend(compact[featureEnd].getP2());
+				hash = GeoFeature.extendHash(hash, compact[featureEnd]);
+				featureEnd++;
+			}
+			if (feature != null) {
+				if (completedCount == completed.length) {
+					completed = Arrays.copyOf(completed, Math.max(4, completedCount * 2));
+				}
+				completed[completedCount++] = feature;
+				if (completedCount == featureStarts.length) {
+					featureStarts = Arrays.copyOf(featureStarts, completedCount * 2);
+				}
+				featureStarts[completedCount] = featureStart;
+				completedFeaturesHash = Route.combineFeaturesHash(completedFeaturesHash, feature);
+			}
+			feature = new GeoFeature(segments.slice(featureStart, featureEnd), length, box, hash);
+			routeBox = (routeBox == null) ? box : routeBox.union(box);
+			featureStart = featureEnd;
+		}
+		PersistentArray<GeoFeature> completedFeatures = PersistentArray.wrap(Arrays.copyOf(completed, completedCount));
+		return new Route(segments, completedFeatures, feature, this.size - feature.getSegmentCount(), routeLength,
+				routeBox, completedFeaturesHash, PrefixSums.wrap(distances),
+				PrefixSums.wrap(Arrays.copyOf(featureStarts, completedCount + 1)));
+	}
+}
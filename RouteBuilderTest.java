@@ -0,0 +1,113 @@
+package homework1;
+
+import java.util.Iterator;
+
+public class RouteBuilderTest {
+	
+  	private GeoSegment[] path;		// a continuous path along ExampleGeoSegments
+  	private Route addedRoute;		// path built with Route.addSegment()
+  
+  
+  	public RouteBuilderTest() {
+  		path = new GeoSegment[7];
+  		System.arraycopy(ExampleGeoSegments.segments, 0, path, 0, path.length);
+  		addedRoute = new Route(path[0]);
+  		for (int i = 1; i < path.length; i++) {
+  			addedRoute = addedRoute.addSegment(path[i]);
+  		}
+  	}
+  	
+  	
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+		
+		
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);	
+	}
+	
+	
+	// checks that two routes have equal features and segments, in order
+	private boolean sameRoute(Route r1, Route r2) {
+		Iterator<GeoFeature> f1 = r1.getGeoFeatures();
+		Iterator<GeoFeature> f2 = r2.getGeoFeatures();
+		while (f1.hasNext() && f2.hasNext()) {
+			if (!f1.next().equals(f2.next())) {
+				return false;
+			}
+		}
+		Iterator<GeoSegment> s1 = r1.getGeoSegments();
+		Iterator<GeoSegment> s2 = r2.getGeoSegments();
+		while (s1.hasNext() && s2.hasNext()) {
+			if (!s1.next().equals(s2.next())) {
+				return false;
+			}
+		}
+		return !f1.hasNext() && !f2.hasNext() && !s1.hasNext() && !s2.hasNext();
+	}
+  	
+  	
+  	public void test() {
+  		show("build()");
+  		Route built = new RouteBuilder().addSegments(path).build();
+		show("Built route has the same features and segments as addSegment()",
+			sameRoute(built, addedRoute));
+		show("Built route has the same length",
+			built.getLength() == addedRoute.getLength());
+		show("Built route has the same segment count",
+			built.getSegmentCount() == path.length);
+		show("Built route has the same bounding box",
+			built.getBoundingBox().equals(addedRoute.getBoundingBox()));
+		show("Built route has the same hash code",
+			built.hashCode() == addedRoute.hashCode());
+		show("Built route has the same directions",
+			new DrivingRouteFormatter().computeDirections(built, 0).equals(
+				new DrivingRouteFormatter().computeDirections(addedRoute, 0)));
+		
+		RouteBuilder builder = new RouteBuilder();
+		for (GeoSegment gs : path) {
+			builder.addSegment(gs);
+		}
+		show("Segments added one by one give the same route",
+			sameRoute(builder.build(), addedRoute));
+		show("Segments added from an Iterable give the same route",
+			sameRoute(new RouteBuilder().addSegments(java.util.Arrays.asList(path)).build(), addedRoute));
+		
+		show("Reusing a builder");
+		RouteBuilder partial = new RouteBuilder().addSegments(path[0], path[1]);
+		Route first = partial.build();
+		partial.addSegment(path[2]);
+		show("Building again does not change an already built route",
+			first.getSegmentCount() == 2 && partial.build().getSegmentCount() == 3);
+		show("Appending to a built route works like appending to any route",
+			sameRoute(first.addSegment(path[2]), partial.build()));
+		
+		show("Errors");
+		boolean thrown = false;
+		try {
+			new RouteBuilder().addSegments(path[0], path[2]);
+		} catch (IllegalArgumentException e) {
+			thrown = true;
+		}
+		show("Discontinuous segments are rejected", thrown);
+		thrown = false;
+		try {
+			new RouteBuilder().build();
+		} catch (IllegalStateException e) {
+			thrown = true;
+		}
+		show("Empty route is rejected", thrown);
+  	}
+
+
+	public static void main(String[] args) {
+		RouteBuilderTest builderTest = new RouteBuilderTest();
+		builderTest.test();
+	}
+}
@@ -1,26 +1,87 @@
 package homework1;
 
+import java.io.IOException;
 import java.util.Iterator;
 
 /**
  * A RouteFormatter class knows how to create a textual description of
  * directions from one location to another. The class is abstract to
- * support different textual descriptions.
+ * support different textual descriptions: a subclass gives the text of each
+ * line by implementing appendLine(), from which computeLine() is derived.
+ * <p>
+ * RouteFormatter itself has no state. A subclass whose instances are
+ * immutable, as DrivingRouteFormatter and WalkingRouteFormatter are, is safe
+ * for use by multiple threads, so one instance may format many routes at
+ * once, for example in a BatchDirectionsService.
  */
 public abstract class RouteFormatter {
 
 	
-	private enum Turn {
-		 STRIGHT 
+	/**
+	 * The kinds of turn from one geographic feature of a route to the next.
+	 * Each Turn has a byte code, its ordinal, so that the turns of a whole
+	 * route can be kept in a byte[] by computeTurns().
+	 */
+	public enum Turn {
+		 STRAIGHT
 		,SLIGHT_RIGHT
 		,RIGHT
 		,SHARP_RIGHT
 		,SLIGHT_LEFT
 		,LEFT
 		,SHARP_LEFT
-		,U_TURN
+		,U_TURN;
+
+		private static final Turn[] values = values();
+
+		/**
+		 * Returns the byte code of this.
+		 * @return the ordinal of this, as a byte.
+		 */
+		public byte getCode() {
+			return (byte) this.ordinal();
+		}
+
+		/**
+		 * Returns the Turn with a given byte code.
+		 * @requires code is the code of a Turn
+		 * @return the Turn t such that t.getCode() == code.
+		 * @throws IllegalArgumentException if no Turn has this code.
+		 */
+		public static Turn fromCode(byte code) {
+			if (code < 0 || code >= values.length) {
+				throw new IllegalArgumentException("Unknown turn code: " + code);
+			}
+			return values[code];
+		}
 	}
-	/**
+
+	// RIGHT_TURNS[k] and LEFT_TURNS[k] are the codes of the turns by an angle
+	// a to the right and to the left with ceil(|a|) = k. Every bound between
+	// two kinds of turn is a whole number of degrees, so k decides the turn.
+	private static final byte[] RIGHT_TURNS = turnTable(Turn.SLIGHT_RIGHT, Turn.RIGHT, Turn.SHARP_RIGHT);
+	private static final byte[] LEFT_TURNS = turnTable(Turn.SLIGHT_LEFT, Turn.LEFT, Turn.SHARP_LEFT);
+
+	private static byte[] turnTable(Turn slight, Turn turn, Turn sharp) {
+		byte[] table = new byte[181];
+		for (int k = 0; k < table.length; k++) {
+			Turn t;
+			if (k <= 10) {
+				t = Turn.STRAIGHT;
+			} else if (k <= 60) {
+				t = slight;
+			} else if (k <= 120) {
+				t = turn;
+			} else if (k <= 179) {
+				t = sharp;
+			} else {
+				t = Turn.U_TURN;
+			}
+			table[k] = t.getCode();
+		}
+		return table;
+	}
+
   	/**
      * Give directions for following this Route, starting at its start point
      * and facing in the specified heading.
@@ -32,18 +93,63 @@ public abstract class RouteFormatter {
      * 	       human-readable directions from start to end along this route.
      **/
   	public String computeDirections(Route route, double heading) {
-  		String directions = "";
+  		StringBuilder directions = new StringBuilder();
+  		StringBuilderAction.perform(() -> this.computeDirections(route, heading, directions));
+  		return directions.toString();
+  	}
+
+
+  	/**
+     * Gives directions for following this Route, starting at its start point
+     * and facing in the specified heading, appending them line by line to
+     * out as each line is computed. The directions are never held in memory
+     * as a whole, so out may be a Writer or a channel-backed stream.
+     * @requires route != null && out != null &&
+     * 			0 <= heading < 360
+     * @param route the route for which to print directions.
+   	 * @param heading the initial heading.
+   	 * @param out the destination of the directions.
+     * @modifies out
+     * @effects appends to out the same newline-terminated directions that
+     * 			computeDirections(route, heading) returns.
+     * @throws IOException if out throws IOException; the lines appended
+     * 		   before it are left in out.
+     **/
+  	public void computeDirections(Route route, double heading, Appendable out) throws IOException {
   		Iterator<GeoFeature> geoFeature = route.getGeoFeatures();
   		double routeHeading = heading;
   		while (geoFeature.hasNext()) {
   			GeoFeature gf = geoFeature.next();
-  			directions = directions.concat(this.computeLine(gf, routeHeading));
+  			this.appendLine(gf, routeHeading, getTurn(routeHeading, gf.getStartHeading()), out);
   			routeHeading  = gf.getEndHeading();
   		}
-  		return directions;
   	}
 
 
+  	/**
+     * Appends a single line of directions, for traversing a single
+     * geographic feature, to out, given the turn onto the feature, already
+     * classified. Every line of directions is produced by this method, by
+     * computeDirections, DirectionsSession and MultiRouteFormatter alike; the
+     * last classifies each turn once for several formatters. A subclass
+     * writes the line straight into out, without building it as a String
+     * first.
+     * @requires geoFeature != null && out != null &&
+     * 			0 <= origHeading < 360 &&
+     * 			turn = getTurn(origHeading, geoFeature.startHeading)
+     * @param geoFeature the geographical feature to traverse.
+   	 * @param origHeading the initial heading.
+   	 * @param turn the turn onto the feature.
+   	 * @param out the destination of the line.
+     * @modifies out
+     * @effects appends to out a newline-terminated line that gives
+     * 			directions on how to traverse this geographic feature.
+     * @throws IOException if out throws IOException.
+     */
+  	protected abstract void appendLine(GeoFeature geoFeature, double origHeading, Turn turn, Appendable out)
+  			throws IOException;
+
+
   	/**
      * Computes a single line of a multi-line directions String that
      * represents the instructions for traversing a single geographic
@@ -52,9 +158,81 @@ public abstract class RouteFormatter {
      * @param geoFeature the geographical feature to traverse.
    	 * @param origHeading the initial heading.
      * @return A newline-terminated <tt>String</tt> that gives directions
-     * 		   on how to traverse this geographic feature.
+     * 		   on how to traverse this geographic feature, as appended by
+     * 		   appendLine().
+     */
+  	public String computeLine(GeoFeature geoFeature, double origHeading) {
+  		StringBuilder line = new StringBuilder(64);
+  		Turn turn = getTurn(origHeading, geoFeature.getStartHeading());
+  		StringBuilderAction.perform(() -> this.appendLine(geoFeature, origHeading, turn, line));
+  		return line.toString();
+  	}
+
+
+  	/**
+     * Classifies the turns along this Route, starting at its start point
+     * and facing in the specified heading, in one pass over its features.
+     * @requires route != null &&
+     * 			0 <= heading < 360
+     * @param route the route whose turns to classify.
+   	 * @param heading the initial heading.
+     * @return an array t of route.getFeatureCount() Turn codes, where t[i]
+     * 		   is the code of the turn onto the i'th feature of the route,
+     * 		   from heading for the first feature and from the end heading
+     * 		   of the previous feature for the others.
+     **/
+  	public static byte[] computeTurns(Route route, double heading) {
+  		byte[] turns = new byte[route.getFeatureCount()];
+  		Iterator<GeoFeature> geoFeature = route.getGeoFeatures();
+  		double routeHeading = heading;
+  		for (int i = 0; i < turns.length; i++) {
+  			GeoFeature gf = geoFeature.next();
+  			turns[i] = getTurnCode(routeHeading, gf.getStartHeading());
+  			routeHeading  = gf.getEndHeading();
+  		}
+  		return turns;
+  	}
+
+
+  	/**
+     * Classifies the turn between two headings.
+     * @requires 0 <= origHeading < 360 &&
+     *           0 <= newHeading < 360
+     * @param origHeading the start heading.
+   	 * @param newHeading the desired new heading.
+     * @return the code of getTurn(origHeading, newHeading).
      */
-  	public abstract String computeLine(GeoFeature geoFeature, double origHeading);
+  	public static byte getTurnCode(double origHeading, double newHeading) {
+  		double angleDiff = getAnglesDiff(origHeading, newHeading);
+  		if (angleDiff > 0) {
+  			return RIGHT_TURNS[Math.min((int) Math.ceil(angleDiff), 180)];
+  		}
+  		return LEFT_TURNS[Math.min((int) Math.ceil(-angleDiff), 180)];
+  	}
+
+
+  	/**
+     * Classifies the turn between two headings.
+     * @requires 0 <= origHeading < 360 &&
+     *           0 <= newHeading < 360
+     * @param origHeading the start heading.
+   	 * @param newHeading the desired new heading.
+     * @return the turn from the old heading to the new one. Let the angle
+     * 		   from the original heading to the new heading be a. The turn
+     * 		   is:
+     * <p>
+     * <pre>
+     * STRAIGHT             if a <= 10
+     * SLIGHT_RIGHT         if 10 < a <= 60
+     * RIGHT                if 60 < a <= 120
+     * SHARP_RIGHT          if 120 < a <= 179
+     * U_TURN               if 179 < a
+     * </pre>
+     * and likewise for left turns.
+     */
+  	public static Turn getTurn(double origHeading, double newHeading) {
+  		return Turn.fromCode(getTurnCode(origHeading, newHeading));
+  	}
 
 
   	/**
@@ -77,9 +255,20 @@ public abstract class RouteFormatter {
      * and likewise for left turns.
      */
   	protected String getTurnString(double origHeading, double newHeading) {
-  		double angleDiff = this.getAnglesDiff(origHeading, newHeading);		
-  		switch (this.getTurnKind(angleDiff)) {
-		case STRIGHT:
+  		return this.getTurnString(getTurn(origHeading, newHeading));
+  	}
+
+
+  	/**
+     * Renders a turn as English directions.
+     * @requires turn != null
+     * @param turn the turn to render.
+     * @return the English directions for turn, as annotated in
+     * 		   getTurnString(double, double).
+     */
+  	protected String getTurnString(Turn turn) {
+  		switch (turn) {
+		case STRAIGHT:
 			return "Continue";
 		case SLIGHT_RIGHT:
 			return "Turn slight right";
@@ -100,45 +289,10 @@ public abstract class RouteFormatter {
 		}
   	}
   	
-  	private double getAnglesDiff(double origHeading, double newHeading) {
+  	private static double getAnglesDiff(double origHeading, double newHeading) {
   		 double angleDiff = newHeading - origHeading;
   		 return (((angleDiff >= -180) && (angleDiff<=180)) ? (angleDiff) : ((angleDiff-360*Math.signum(angleDiff)))); 
   		
   	}
-  	
-  	private Turn getTurnKind(double angleDiff) {
-  		if (angleDiff > 0 ) {
-  			return getTurnRight(angleDiff);
-  		}
-  		return getTurnLeft(angleDiff);
-  	}
-  	
-  	private Turn getTurnLeft(double angleDiff) {
-  		if (angleDiff >= -10) {
-  			return Turn.STRIGHT;
-  		}else if (angleDiff >= -60) {
-  			return Turn.SLIGHT_LEFT;
-  		}else if (angleDiff >= -120) {
-  			return Turn.LEFT;
-  		}else if (angleDiff >= -179) {
-  			return Turn.SHARP_LEFT;
-  		}else {
-  			return Turn.U_TURN;
-  		}
-  	}
-  	
-	private Turn getTurnRight (double angleDiff) {
-		if (angleDiff <= 10) {
-  			return Turn.STRIGHT;
-  		}else if (angleDiff <= 60) {
-  			return Turn.SLIGHT_RIGHT;
-  		}else if (angleDiff <= 120) {
-  			return Turn.RIGHT;
-  		}else if (angleDiff <= 179) {
-  			return Turn.SHARP_RIGHT;
-  		}else {
-  			return Turn.U_TURN;
-  		}
-	}
 
 }
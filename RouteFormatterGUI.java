@@ -24,6 +24,12 @@ public class RouteFormatterGUI extends JPanel {
 	private JTextArea txtWalkingDirections;
 	private JTextArea txtDrivingDirections;
 
+	// directions shown in txtDrivingDirections and txtWalkingDirections
+	private final DirectionsSession drivingDirections =
+			new DirectionsSession(new DrivingRouteFormatter(), 0);
+	private final DirectionsSession walkingDirections =
+			new DirectionsSession(new WalkingRouteFormatter(), 0);
+
 
 	/**
 	 * Creates a new RoutFormatterGUI JPanel.
@@ -138,7 +144,8 @@ public class RouteFormatterGUI extends JPanel {
 	 * 			defined by Route.addSegment(). In addition, updates the
 	 * 			walking direction and the driving direction of the GUI
 	 * 			with the return value of
-	 * 			RouteDirection.computeDirections(this.route,0)
+	 * 			RouteDirection.computeDirections(this.route,0). Only the
+	 * 			lines that changed are formatted and replaced.
 	 */
 	public void addSegment(GeoSegment segment) {
 		DefaultListModel<GeoSegment> model =
@@ -149,10 +156,15 @@ public class RouteFormatterGUI extends JPanel {
 			this.route = this.route.addSegment(segment);
 		}
 		model.addElement(segment);
-		RouteFormatter formatter = new DrivingRouteFormatter();
-		this.txtDrivingDirections.setText(formatter.computeDirections(this.route, 0));
-		formatter = new WalkingRouteFormatter();
-		this.txtWalkingDirections.setText(formatter.computeDirections(this.route, 0));
+		showDirections(this.txtDrivingDirections, this.drivingDirections, this.route);
+		showDirections(this.txtWalkingDirections, this.walkingDirections, this.route);
+	}
+
+	// updates session with route and replaces the lines of area that changed
+	private static void showDirections(JTextArea area, DirectionsSession session, Route route) {
+		int changed = session.update(route);
+		area.replaceRange(session.getDirections(changed), session.getLineOffset(changed),
+						  area.getDocument().getLength());
 	}
 
 	//write document
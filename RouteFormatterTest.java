@@ -0,0 +1,109 @@
+package homework1;
+
+import java.util.Iterator;
+import java.util.Random;
+
+public class RouteFormatterTest {
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+	// the turn annotated for an angle a by RouteFormatter.getTurnString
+	private static RouteFormatter.Turn expectedTurn(double origHeading, double newHeading) {
+		double a = newHeading - origHeading;
+		if (a < -180) {
+			a += 360;
+		} else if (a > 180) {
+			a -= 360;
+		}
+		double abs = Math.abs(a);
+		if (abs <= 10) {
+			return RouteFormatter.Turn.STRAIGHT;
+		} else if (abs <= 60) {
+			return (a > 0) ? RouteFormatter.Turn.SLIGHT_RIGHT : RouteFormatter.Turn.SLIGHT_LEFT;
+		} else if (abs <= 120) {
+			return (a > 0) ? RouteFormatter.Turn.RIGHT : RouteFormatter.Turn.LEFT;
+		} else if (abs <= 179) {
+			return (a > 0) ? RouteFormatter.Turn.SHARP_RIGHT : RouteFormatter.Turn.SHARP_LEFT;
+		}
+		return RouteFormatter.Turn.U_TURN;
+	}
+
+
+  	public void test() {
+  		show("Turn");
+  		boolean ok = true;
+  		for (RouteFormatter.Turn turn : RouteFormatter.Turn.values()) {
+  			ok &= RouteFormatter.Turn.fromCode(turn.getCode()) == turn;
+  		}
+  		show("Codes map back to their turns", ok);
+  		boolean thrown = false;
+  		try {
+  			RouteFormatter.Turn.fromCode((byte) 100);
+  		} catch (IllegalArgumentException e) {
+  			thrown = true;
+  		}
+  		show("Unknown code is rejected", thrown);
+
+  		show("getTurn()");
+  		show("Bounds are inclusive on the smaller angle",
+  			RouteFormatter.getTurn(0, 10) == RouteFormatter.Turn.STRAIGHT
+  			&& RouteFormatter.getTurn(0, 10.000001) == RouteFormatter.Turn.SLIGHT_RIGHT
+  			&& RouteFormatter.getTurn(10, 0) == RouteFormatter.Turn.STRAIGHT
+  			&& RouteFormatter.getTurn(0, 300) == RouteFormatter.Turn.SLIGHT_LEFT
+  			&& RouteFormatter.getTurn(0, 179) == RouteFormatter.Turn.SHARP_RIGHT
+  			&& RouteFormatter.getTurn(0, 180) == RouteFormatter.Turn.U_TURN
+  			&& RouteFormatter.getTurn(359, 1) == RouteFormatter.Turn.STRAIGHT);
+  		Random random = new Random(22);
+  		ok = true;
+  		for (int i = 0; i < 100000 && ok; i++) {
+  			double orig = random.nextDouble() * 360;
+  			double turned = (i % 2 == 0) ? random.nextDouble() * 360 : (orig + random.nextInt(360)) % 360;
+  			ok = RouteFormatter.getTurn(orig, turned) == expectedTurn(orig, turned);
+  		}
+  		show("Random headings are classified as annotated", ok);
+
+  		show("computeTurns()");
+  		Route route = new Route(new GeoSegment("Trumpeldor Avenue",
+  			new GeoPoint(32783098, 35014528), new GeoPoint(32787081, 35020735)));
+  		route = route.addSegment(new GeoSegment("Hagalil",
+  			new GeoPoint(32787081, 35020735), new GeoPoint(32795631, 35010296)));
+  		route = route.addSegment(new GeoSegment("Hanita",
+  			new GeoPoint(32795631, 35010296), new GeoPoint(32783098, 35014528)));
+  		byte[] turns = RouteFormatter.computeTurns(route, 0);
+  		show("One code per feature", turns.length == route.getFeatureCount() && turns.length == 3);
+  		ok = true;
+  		double heading = 0;
+  		Iterator<GeoFeature> features = route.getGeoFeatures();
+  		for (int i = 0; i < turns.length; i++) {
+  			GeoFeature gf = features.next();
+  			ok &= turns[i] == RouteFormatter.getTurnCode(heading, gf.getStartHeading());
+  			heading = gf.getEndHeading();
+  		}
+  		show("Codes are the turns between consecutive features", ok);
+  		show("Codes match the directions",
+  			RouteFormatter.Turn.fromCode(turns[0]) == RouteFormatter.Turn.SLIGHT_RIGHT
+  			&& RouteFormatter.Turn.fromCode(turns[1]) == RouteFormatter.Turn.LEFT
+  			&& new DrivingRouteFormatter().computeDirections(route, 0).startsWith(
+  				"Turn slight right onto Trumpeldor Avenue and go 0.7 kilometers.\n" +
+  				"Turn left onto Hagalil and go 1.4 kilometers.\n"));
+  	}
+
+
+	public static void main(String[] args) {
+		RouteFormatterTest routeFormatterTest = new RouteFormatterTest();
+		routeFormatterTest.test();
+	}
+}
@@ -0,0 +1,96 @@
+package homework1;
+
+/**
+ * A RouteLocation describes a position along a Route, as returned by
+ * <tt>Route.locate()</tt>. RouteLocations are immutable.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   distance : real           // distance along the route from its start, in kilometers
+ *   segmentIndex : integer    // index, in the route's geoSegments, of the segment containing the position
+ *   featureIndex : integer    // index, in the route's geoFeatures, of the feature containing the position
+ *   segment : GeoSegment      // the segment containing the position
+ *   point : GeoPoint          // the position, interpolated along segment
+ * </pre>
+ **/
+public final class RouteLocation {
+
+	private final double distance;
+	private final int segmentIndex;
+	private final int featureIndex;
+	private final GeoSegment segment;
+	private final GeoPoint point;
+
+	/**
+	 * Constructs a new RouteLocation.
+	 *
+	 * @requires segment != null && point != null && distance >= 0 &&
+	 *           segmentIndex >= 0 && featureIndex >= 0
+	 * @effects Constructs a new RouteLocation with the given fields.
+	 **/
+	RouteLocation(double distance, int segmentIndex, int featureIndex, GeoSegment segment, GeoPoint point) {
+		this.distance = distance;
+		this.segmentIndex = segmentIndex;
+		this.featureIndex = featureIndex;
+		this.segment = segment;
+		this.point = point;
+	}
+
+	/**
+	 * Returns the distance along the route.
+	 *
+	 * @return the distance along the route from its start, in kilometers.
+	 **/
+	public double getDistance() {
+		return this.distance;
+	}
+
+	/**
+	 * Returns the index of the segment containing this location.
+	 *
+	 * @return the index, in the route's sequence of GeoSegments, of the segment
+	 *         containing this location.
+	 **/
+	public int getSegmentIndex() {
+		return this.segmentIndex;
+	}
+
+	/**
+	 * Returns the index of the feature containing this location.
+	 *
+	 * @return the index, in the route's sequence of GeoFeatures, of the feature
+	 *         containing this location.
+	 **/
+	public int getFeatureIndex() {
+		return this.featureIndex;
+	}
+
+	/**
+	 * Returns the segment containing this location.
+	 *
+	 * @return the GeoSegment containing this location.
+	 **/
+	public GeoSegment getSegment() {
+		return this.segment;
+	}
+
+	/**
+	 * Returns the point at this location.
+	 *
+	 * @return the GeoPoint at this location, interpolated linearly between the
+	 *         endpoints of its segment and rounded to millionths of degrees.
+	 **/
+	public GeoPoint getPoint() {
+		return this.point;
+	}
+
+	/**
+	 * Returns a string representation of this.
+	 *
+	 * @return a string representation of this.
+	 **/
+	public String toString() {
+		return this.point + " on " + this.segment.getName() + " (segment " + this.segmentIndex + ", feature "
+				+ this.featureIndex + ") at " + this.distance + " km";
+	}
+}
@@ -0,0 +1,429 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Collectors;
+
+public class RouteTest {
+	
+	private static final double tolerance = 0.01;
+   
+  	private GeoSegment[] path;		// a continuous path along ExampleGeoSegments
+  	private Route route;
+  
+  
+  	public RouteTest() {
+  		path = new GeoSegment[7];
+  		System.arraycopy(ExampleGeoSegments.segments, 0, path, 0, path.length);
+  		route = new Route(path[0]);
+  		for (int i = 1; i < path.length; i++) {
+  			route = route.addSegment(path[i]);
+  		}
+  	}
+  	
+  	
+  	boolean same(double x, double y) {
+  		return ((y >= x-tolerance) && (y <= x+tolerance));
+  	}
+  	
+  	
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+		
+		
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);	
+	}
+  	
+  	
+  	public void test() {
+  		show("distanceAtSegment()");
+  		show("Route starts at distance 0", route.distanceAtSegment(0) == 0.0);
+  		show("Distance after the last segment is the route length",
+  			route.distanceAtSegment(path.length) == route.getLength());
+  		double sum = 0;
+  		boolean ok = true;
+  		for (int i = 0; i < path.length; i++) {
+  			ok &= same(sum, route.distanceAtSegment(i));
+  			sum += path[i].getLength();
+  		}
+  		show("Distances are the sums of the preceding segments", ok);
+  		
+  		show("locate()");
+  		RouteLocation start = route.locate(0);
+  		show("Location 0 is the start of the route",
+  			start.getPoint().equals(route.getStart()) && start.getSegmentIndex() == 0 &&
+  			start.getFeatureIndex() == 0);
+  		RouteLocation end = route.locate(route.getLength());
+  		show("Location at the route length is the end of the route",
+  			end.getPoint().equals(route.getEnd()) && end.getSegmentIndex() == path.length - 1 &&
+  			end.getFeatureIndex() == 3);
+  		RouteLocation hagalil = route.locate(route.distanceAtSegment(3));
+  		show("Location at a segment boundary is the start of the later segment",
+  			hagalil.getSegmentIndex() == 3 && hagalil.getPoint().equals(path[3].getP1()));
+  		show("Location knows its feature",
+  			hagalil.getFeatureIndex() == 2 && hagalil.getSegment().getName().equals("Hagalil"));
+  		double middle = route.distanceAtSegment(1) + path[1].getLength() / 2;
+  		RouteLocation trumpeldor = route.locate(middle);
+  		show("Location inside a segment is interpolated",
+  			trumpeldor.getSegmentIndex() == 1 &&
+  			same(path[1].getP1().distanceTo(trumpeldor.getPoint()), path[1].getLength() / 2) &&
+  			same(path[1].getP2().distanceTo(trumpeldor.getPoint()), path[1].getLength() / 2));
+  		
+  		show("subRoute()");
+  		Route whole = route.subRoute(0, route.getLength());
+  		show("Whole sub route has the same segments",
+  			whole.getSegmentCount() == route.getSegmentCount() && whole.getLength() == route.getLength());
+  		double from = middle;
+  		double to = route.distanceAtSegment(5) + 0.1;
+  		Route part = route.subRoute(from, to);
+  		show("Sub route has the requested length", same(to - from, part.getLength()));
+  		show("Sub route starts and ends at the requested locations",
+  			part.getStart().equals(route.locate(from).getPoint()) &&
+  			part.getEnd().equals(route.locate(to).getPoint()));
+  		show("Sub route keeps the features it crosses",
+  			part.features().map(GeoFeature::getName).collect(java.util.stream.Collectors.toList()).equals(
+  				java.util.Arrays.asList("Trumpeldor Avenue", "Hagalil", "Hanita")));
+  		Route shortPart = route.subRoute(middle, middle + 0.05);
+  		show("Sub route inside one segment has one segment",
+  			shortPart.getSegmentCount() == 1 && same(0.05, shortPart.getLength()));
+  		
+  		show("Errors");
+  		boolean thrown = false;
+  		try {
+  			route.locate(route.getLength() + 1);
+  		} catch (IllegalArgumentException e) {
+  			thrown = true;
+  		}
+  		show("Location beyond the route is rejected", thrown);
+  		thrown = false;
+  		try {
+  			route.subRoute(1, 0.5);
+  		} catch (IllegalArgumentException e) {
+  			thrown = true;
+  		}
+  		show("Reversed range is rejected", thrown);
+  		
+  		show("equals() and hashCode()");
+  		Route built = new RouteBuilder().addSegments(path).build();
+  		show("Route equals the same route built at once",
+  			route.equals(built) && built.equals(route) && route.hashCode() == built.hashCode());
+  		show("Route does not equal a shorter route", !route.equals(route.subRoute(0, 0.1)));
+  		show("Route does not equal a feature", !route.equals(route.getGeoFeatures().next()));
+  		ok = true;
+  		Iterator<GeoFeature> features = route.getGeoFeatures();
+  		Iterator<GeoFeature> builtFeatures = built.getGeoFeatures();
+  		Set<Integer> hashes = new HashSet<Integer>();
+  		while (features.hasNext()) {
+  			GeoFeature feature = features.next();
+  			GeoFeature builtFeature = builtFeatures.next();
+  			ok &= feature.equals(builtFeature) && feature.hashCode() == builtFeature.hashCode();
+  			List<GeoSegment> segments = new ArrayList<GeoSegment>();
+  			feature.getGeoSegments().forEachRemaining(segments::add);
+  			ok &= feature.hashCode() == segments.hashCode();
+  			hashes.add(feature.hashCode());
+  		}
+  		show("Features hash like the list of their segments", ok);
+  		show("Distinct features have distinct hash codes", hashes.size() == 4);
+  		
+  		show("segments() and features()");
+  		List<GeoSegment> pathList = Arrays.asList(path);
+  		List<GeoSegment> iterated = new ArrayList<GeoSegment>();
+  		route.getGeoSegments().forEachRemaining(iterated::add);
+  		show("getGeoSegments() yields the segments in order", iterated.equals(pathList));
+  		show("segments() yields the segments in order",
+  			route.segments().collect(Collectors.toList()).equals(pathList));
+  		List<GeoFeature> iteratedFeatures = new ArrayList<GeoFeature>();
+  		route.getGeoFeatures().forEachRemaining(iteratedFeatures::add);
+  		List<GeoFeature> streamedFeatures = route.features().collect(Collectors.toList());
+  		ok = streamedFeatures.size() == iteratedFeatures.size() && streamedFeatures.size() == route.getFeatureCount();
+  		for (int i = 0; ok && i < streamedFeatures.size(); i++) {
+  			ok &= streamedFeatures.get(i) == iteratedFeatures.get(i)
+  				&& streamedFeatures.get(i) == route.getGeoFeature(i);
+  		}
+  		show("features() yields the same features as getGeoFeatures()", ok);
+  		show("Features cover the segments in order",
+  			route.features().flatMap(GeoFeature::segments).collect(Collectors.toList()).equals(pathList));
+  		thrown = false;
+  		try {
+  			Iterator<GeoSegment> it = route.getGeoSegments();
+  			it.next();
+  			it.remove();
+  		} catch (UnsupportedOperationException e) {
+  			thrown = true;
+  		}
+  		ok = thrown;
+  		thrown = false;
+  		try {
+  			Iterator<GeoFeature> it = route.getGeoFeatures();
+  			it.next();
+  			it.remove();
+  		} catch (UnsupportedOperationException e) {
+  			thrown = true;
+  		}
+  		show("Iterators reject remove()", ok && thrown);
+  		show("Route is unchanged by remove()",
+  			route.segments().collect(Collectors.toList()).equals(pathList) && route.getFeatureCount() == 4);
+  		
+  		show("simplify()");
+  		// a recorded trace: 2000 points heading east with up to 2 m of
+  		// sideways jitter, then a turn north onto a short road
+  		Random random = new Random(19);
+  		RouteBuilder builder = new RouteBuilder();
+  		GeoPoint p = new GeoPoint(32780000, 35000000);
+  		for (int i = 1; i <= 2000; i++) {
+  			GeoPoint next = new GeoPoint(32780000 + random.nextInt(37) - 18, 35000000 + 10 * i);
+  			builder.addSegment(new GeoSegment("Trace", p, next));
+  			p = next;
+  		}
+  		for (int i = 1; i <= 3; i++) {
+  			GeoPoint next = new GeoPoint(p.getLatitude() + 1000, p.getLongitude() + 3);
+  			builder.addSegment(new GeoSegment("North Road", p, next));
+  			p = next;
+  		}
+  		Route trace = builder.build();
+  		Route simple = trace.simplify(0.005);
+  		show("Simplified trace has far fewer segments (" + simple.getSegmentCount() + ")",
+  			simple.getSegmentCount() < trace.getSegmentCount() / 10);
+  		show("Simplified trace keeps its start and end",
+  			simple.getStart().equals(trace.getStart()) && simple.getEnd().equals(trace.getEnd()));
+  		ok = true;
+  		Iterator<GeoFeature> traceFeatures = trace.getGeoFeatures();
+  		Iterator<GeoFeature> simpleFeatures = simple.getGeoFeatures();
+  		RouteFormatter formatter = new DrivingRouteFormatter();
+  		double traceHeading = 0, simpleHeading = 0;
+  		while (traceFeatures.hasNext()) {
+  			GeoFeature original = traceFeatures.next();
+  			GeoFeature simplified = simpleFeatures.next();
+  			ok &= original.getName().equals(simplified.getName()) &&
+  				original.getStart().equals(simplified.getStart()) &&
+  				original.getEnd().equals(simplified.getEnd()) &&
+  				original.getStartHeading() == simplified.getStartHeading() &&
+  				original.getEndHeading() == simplified.getEndHeading() &&
+  				formatter.getTurnString(traceHeading, original.getStartHeading()).equals(
+  					formatter.getTurnString(simpleHeading, simplified.getStartHeading()));
+  			traceHeading = original.getEndHeading();
+  			simpleHeading = simplified.getEndHeading();
+  		}
+  		show("Simplified trace keeps its features and turns", ok && !simpleFeatures.hasNext());
+  		GeoFeature traceFeature = trace.getGeoFeatures().next();
+  		GeoFeature simpleFeature = simple.getGeoFeatures().next();
+  		ok = true;
+  		Iterator<GeoSegment> traceSegments = traceFeature.getGeoSegments();
+  		while (traceSegments.hasNext()) {
+  			GeoPoint point = traceSegments.next().getP2();
+  			double nearest = Double.POSITIVE_INFINITY;
+  			Iterator<GeoSegment> simpleSegments = simpleFeature.getGeoSegments();
+  			while (simpleSegments.hasNext()) {
+  				nearest = Math.min(nearest, simpleSegments.next().distanceTo(point));
+  			}
+  			ok &= nearest <= 0.005 + 1e-9;
+  		}
+  		show("Every point of the trace is within the tolerance", ok);
+  		show("Feature that cannot be simplified is returned as is",
+  			simpleFeature.simplify(0.005) == simpleFeature && route.simplify(0) == route);
+  		show("Zero tolerance keeps a jittered trace", traceFeature.simplify(0).getSegmentCount() > 1000);
+  		GeoPoint q = new GeoPoint(32780000, 35000000);
+  		GeoFeature fast = null;
+  		for (int i = 1; i <= 50; i++) {
+  			GeoPoint next = new GeoPoint(32780000 + random.nextInt(37) - 18, 35000000 + 10 * i);
+  			GeoSegment gs = new GeoSegment("Fast Trace", q, next, HeadingEngine.FAST);
+  			fast = (fast == null) ? new GeoFeature(gs) : fast.addSegment(gs);
+  			q = next;
+  		}
+  		ok = fast.simplify(0.005).getSegmentCount() < fast.getSegmentCount();
+  		Iterator<GeoSegment> fastSegments = fast.simplify(0.005).getGeoSegments();
+  		while (fastSegments.hasNext()) {
+  			ok &= fastSegments.next().getHeadingEngine() == HeadingEngine.FAST;
+  		}
+  		show("Simplified segments keep their heading engine", ok);
+  		
+  		show("segments() in parallel");
+  		// a long route, above the threshold for parallel sums, of features
+  		// of 100 segments
+  		builder = new RouteBuilder();
+  		p = new GeoPoint(32780000, 35000000);
+  		for (int i = 0; i < 3 * PersistentArray.PARALLEL_THRESHOLD; i++) {
+  			GeoPoint next = new GeoPoint(p.getLatitude() + random.nextInt(201) - 100, p.getLongitude() + 50);
+  			builder.addSegment(new GeoSegment("Street " + (i / 100), p, next));
+  			p = next;
+  		}
+  		Route longRoute = builder.build();
+  		int n = longRoute.getSegmentCount();
+  		Spliterator<GeoSegment> spliterator = longRoute.segments().spliterator();
+  		int expected = Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED
+  			| Spliterator.IMMUTABLE | Spliterator.NONNULL;
+  		show("Spliterator is ordered, sized, subsized, immutable and nonnull",
+  			(spliterator.characteristics() & expected) == expected && spliterator.getExactSizeIfKnown() == n);
+  		show("Split sizes add up", splitsAddUp(spliterator, n));
+  		Map<GeoSegment, Integer> indexes = new IdentityHashMap<GeoSegment, Integer>();
+  		Iterator<GeoSegment> longSegments = longRoute.getGeoSegments();
+  		for (int i = 0; longSegments.hasNext(); i++) {
+  			indexes.put(longSegments.next(), i);
+  		}
+  		AtomicIntegerArray visits = new AtomicIntegerArray(n);
+  		longRoute.segments().parallel().forEach(gs -> visits.incrementAndGet(indexes.get(gs)));
+  		ok = indexes.size() == n;
+  		for (int i = 0; i < n; i++) {
+  			ok &= visits.get(i) == 1;
+  		}
+  		show("Parallel stream visits each segment exactly once", ok);
+  		show("Parallel stream keeps the order of the segments",
+  			longRoute.segments().parallel().collect(Collectors.toList()).equals(
+  				longRoute.segments().collect(Collectors.toList())));
+  		ok = true;
+  		for (DistanceModel model : DistanceModel.values()) {
+  			double length = 0;
+  			longSegments = longRoute.getGeoSegments();
+  			while (longSegments.hasNext()) {
+  				length += longSegments.next().getLength(model);
+  			}
+  			ok &= Math.abs(longRoute.getLength(model) - length) <= 1e-9 * length;
+  		}
+  		show("Parallel length is the sequential sum", ok);
+  		show("Parallel flat length is the cached length",
+  			Math.abs(longRoute.getLength(DistanceModel.FLAT) - longRoute.getLength()) <= 1e-9 * longRoute.getLength());
+  		
+  		show("Cached totals");
+  		Route grown = null;
+  		List<GeoSegment> grownSegments = new ArrayList<GeoSegment>();
+  		p = new GeoPoint(32780000, 35000000);
+  		boolean length = true, count = true, box = true, hash = true;
+  		int street = 0;
+  		for (int i = 0; i < 500; i++) {
+  			if (random.nextInt(4) == 0) {
+  				street++;
+  			}
+  			GeoPoint next = new GeoPoint(p.getLatitude() + random.nextInt(4001) - 2000,
+  										 p.getLongitude() + random.nextInt(4001) - 2000);
+  			GeoSegment gs = new GeoSegment("Street " + street, p, next);
+  			grown = (grown == null) ? new Route(gs) : grown.addSegment(gs);
+  			grownSegments.add(gs);
+  			p = next;
+  			double total = 0;
+  			int minLat = Integer.MAX_VALUE, minLon = Integer.MAX_VALUE;
+  			int maxLat = Integer.MIN_VALUE, maxLon = Integer.MIN_VALUE;
+  			for (GeoSegment segment : grownSegments) {
+  				total += segment.getLength();
+  				for (GeoPoint point : new GeoPoint[] { segment.getP1(), segment.getP2() }) {
+  					minLat = Math.min(minLat, point.getLatitude());
+  					minLon = Math.min(minLon, point.getLongitude());
+  					maxLat = Math.max(maxLat, point.getLatitude());
+  					maxLon = Math.max(maxLon, point.getLongitude());
+  				}
+  			}
+  			// the hash code combines the hash codes of the segment lists of
+  			// the features
+  			int featureCount = 0;
+  			int featuresHash = 1;
+  			List<GeoSegment> feature = new ArrayList<GeoSegment>();
+  			for (int j = 0; j <= grownSegments.size(); j++) {
+  				if (j == grownSegments.size() || (j > 0
+  						&& !grownSegments.get(j).getName().equals(grownSegments.get(j - 1).getName()))) {
+  					featuresHash = 37 * featuresHash + feature.hashCode();
+  					featureCount++;
+  					feature.clear();
+  				}
+  				if (j < grownSegments.size()) {
+  					feature.add(grownSegments.get(j));
+  				}
+  			}
+  			length &= grown.getLength() == total;
+  			count &= grown.getSegmentCount() == grownSegments.size() && grown.getFeatureCount() == featureCount;
+  			box &= grown.getBoundingBox().equals(new BoundingBox(minLat, minLon, maxLat, maxLon));
+  			hash &= grown.hashCode() == featuresHash;
+  		}
+  		show("Cached length is the sum of the segment lengths", length);
+  		show("Cached segment and feature counts are the numbers of segments and features", count);
+  		show("Cached bounding box holds exactly the segment endpoints", box);
+  		show("Cached hash code combines the hash codes of the features", hash);
+  		show("Grown route equals the route built at once",
+  			grown.equals(new RouteBuilder().addSegments(grownSegments).build())
+  			&& grown.hashCode() == new RouteBuilder().addSegments(grownSegments).build().hashCode());
+  		
+  		show("Index of a growing route");
+  		// every version is queried as it grows, and again after branches are
+  		// grown from older versions
+  		List<Route> versions = new ArrayList<Route>();
+  		Route growing = null;
+  		ok = true;
+  		for (int i = 0; i < grownSegments.size(); i++) {
+  			growing = (growing == null) ? new Route(grownSegments.get(i)) : growing.addSegment(grownSegments.get(i));
+  			versions.add(growing);
+  			ok &= sameIndex(growing, grownSegments.subList(0, i + 1));
+  		}
+  		show("Each version answers position queries as it grows", ok);
+  		ok = true;
+  		for (int i = 0; i < versions.size(); i += 7) {
+  			GeoPoint branchStart = versions.get(i).getEnd();
+  			GeoSegment branch = new GeoSegment("Branch", branchStart,
+  				new GeoPoint(branchStart.getLatitude() + 1000, branchStart.getLongitude()));
+  			List<GeoSegment> branchSegments = new ArrayList<GeoSegment>(grownSegments.subList(0, i + 1));
+  			branchSegments.add(branch);
+  			ok &= sameIndex(versions.get(i).addSegment(branch), branchSegments);
+  		}
+  		for (int i = 0; i < versions.size(); i++) {
+  			ok &= sameIndex(versions.get(i), grownSegments.subList(0, i + 1));
+  		}
+  		show("Branches and older versions keep their own index", ok);
+  	}
+  	
+  	
+  	// checks that the position queries of route agree with the route built at
+  	// once from segments
+  	private static boolean sameIndex(Route route, List<GeoSegment> segments) {
+  		Route built = new RouteBuilder().addSegments(segments).build();
+  		boolean ok = route.getLength() == built.getLength();
+  		for (int i = 0; i <= segments.size(); i++) {
+  			ok &= route.distanceAtSegment(i) == built.distanceAtSegment(i);
+  		}
+  		for (int i = 0; i < segments.size(); i++) {
+  			double km = route.distanceAtSegment(i) + segments.get(i).getLength() / 3;
+  			RouteLocation location = route.locate(Math.min(km, route.getLength()));
+  			RouteLocation expected = built.locate(Math.min(km, route.getLength()));
+  			ok &= location.getSegmentIndex() == expected.getSegmentIndex()
+  				&& location.getFeatureIndex() == expected.getFeatureIndex()
+  				&& location.getSegment() == segments.get(expected.getSegmentIndex())
+  				&& location.getPoint().equals(expected.getPoint());
+  		}
+  		return ok;
+  	}
+  	
+  	
+  	// checks that every split of spliterator, recursively, reports the exact
+  	// sizes of its two parts, and that they add up to size
+  	private static boolean splitsAddUp(Spliterator<GeoSegment> spliterator, long size) {
+  		if (spliterator.getExactSizeIfKnown() != size) {
+  			return false;
+  		}
+  		Spliterator<GeoSegment> prefix = spliterator.trySplit();
+  		if (prefix == null) {
+  			return size <= 1 || spliterator.getExactSizeIfKnown() == size;
+  		}
+  		long prefixSize = prefix.getExactSizeIfKnown();
+  		long suffixSize = spliterator.getExactSizeIfKnown();
+  		return prefixSize >= 0 && suffixSize >= 0 && prefixSize + suffixSize == size
+  			&& splitsAddUp(prefix, prefixSize) && splitsAddUp(spliterator, suffixSize);
+  	}
+
+
+	public static void main(String[] args) {
+		RouteTest routeTest = new RouteTest();
+		routeTest.test();
+	}
+}
@@ -0,0 +1,467 @@
+package homework1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A SegmentRTree is a spatial index over a fixed set of GeoSegments, used to
+ * find the segments nearest to a point and the segments within a bounding
+ * box. SegmentRTrees are immutable, and therefore safe for use by any number
+ * of concurrent readers.
+ * <p>
+ * The tree is a packed R-tree, bulk loaded with the Sort-Tile-Recursive
+ * algorithm: the bounding boxes of the segments are sorted into vertical
+ * slices by longitude, each slice is sorted by latitude, and runs of
+ * <tt>NODE_SIZE</tt> consecutive boxes become the nodes of the next level,
+ * which is packed the same way until a single root is left. Every node is
+ * full except possibly the last one of each level. Segment endpoints and
+ * node boxes are kept in flat int arrays; the children of a node are a range
+ * of the level below.
+ * <p>
+ * Distances are computed from the point to the nearest point of a segment,
+ * using the same flat-surface, near the Technion approximation as
+ * <tt>GeoSegment.distanceTo()</tt>.
+ */
+public final class SegmentRTree {
+
+	/**
+	 * Maximum number of children of a node.
+	 */
+	public static final int NODE_SIZE = 16;
+
+	// kilometers per millionth of a degree, shrunk by a relative 1e-12 so
+	// that distances to node boxes stay lower bounds of the distances to
+	// the segments inside them despite rounding
+	private static final double KM_PER_LATITUDE_UNIT = GeoPoint.KM_PER_DEGREE_LATITUDE
+			/ GeoPoint.MILLIONTHS_OF_DEGREES * (1 - 1e-12);
+	private static final double KM_PER_LONGITUDE_UNIT = GeoPoint.KM_PER_DEGREE_LONGITUDE
+			/ GeoPoint.MILLIONTHS_OF_DEGREES * (1 - 1e-12);
+
+	// the segments and their endpoints, in the order of the leaves. The
+	// endpoints are also kept projected, in kilometers, for distances.
+	private final GeoSegment[] segments;
+	private final int[] lat1;
+	private final int[] lon1;
+	private final int[] lat2;
+	private final int[] lon2;
+	private final double[] x1;
+	private final double[] y1;
+	private final double[] x2;
+	private final double[] y2;
+
+	// the nodes, level by level from the leaves up; the root is the last one.
+	// The children of node i are [firstChild[i], endChild[i]): segments if
+	// i < leafCount, nodes otherwise.
+	private final int[] minLat;
+	private final int[] minLon;
+	private final int[] maxLat;
+	private final int[] maxLon;
+	private final int[] firstChild;
+	private final int[] endChild;
+	private final int leafCount;
+	private final int nodeCount;
+
+	private SegmentRTree(GeoSegment[] input) {
+		int n = input.length;
+		int[] boxMinLat = new int[n];
+		int[] boxMinLon = new int[n];
+		int[] boxMaxLat = new int[n];
+		int[] boxMaxLon = new int[n];
+		for (int i = 0; i < n; i++) {
+			GeoPoint p1 = input[i].getP1();
+			GeoPoint p2 = input[i].getP2();
+			boxMinLat[i] = Math.min(p1.getLatitude(), p2.getLatitude());
+			boxMinLon[i] = Math.min(p1.getLongitude(), p2.getLongitude());
+			boxMaxLat[i] = Math.max(p1.getLatitude(), p2.getLatitude());
+			boxMaxLon[i] = Math.max(p1.getLongitude(), p2.getLongitude());
+		}
+
+		// order the segments as the leaves will hold them
+		int[] order = strOrder(boxMinLat, boxMinLon, boxMaxLat, boxMaxLon, 0, n);
+		this.segments = new GeoSegment[n];
+		this.lat1 = new int[n];
+		this.lon1 = new int[n];
+		this.lat2 = new int[n];
+		this.lon2 = new int[n];
+		this.x1 = new double[n];
+		this.y1 = new double[n];
+		this.x2 = new double[n];
+		this.y2 = new double[n];
+		permute(boxMinLat, 0, order);
+		permute(boxMinLon, 0, order);
+		permute(boxMaxLat, 0, order);
+		permute(boxMaxLon, 0, order);
+		for (int k = 0; k < n; k++) {
+			GeoSegment gs = input[order[k]];
+			this.segments[k] = gs;
+			this.lat1[k] = gs.getP1().getLatitude();
+			this.lon1[k] = gs.getP1().getLongitude();
+			this.lat2[k] = gs.getP2().getLatitude();
+			this.lon2[k] = gs.getP2().getLongitude();
+			this.x1[k] = GeoPoint.projectLongitude(this.lon1[k]);
+			this.y1[k] = GeoPoint.projectLatitude(this.lat1[k]);
+			this.x2[k] = GeoPoint.projectLongitude(this.lon2[k]);
+			this.y2[k] = GeoPoint.projectLatitude(this.lat2[k]);
+		}
+
+		int total = 0;
+		for (int count = n; count > 1 || (count == 1 && total == 0);) {
+			count = (count + NODE_SIZE - 1) / NODE_SIZE;
+			total += count;
+		}
+		this.minLat = new int[total];
+		this.minLon = new int[total];
+		this.maxLat = new int[total];
+		this.maxLon = new int[total];
+		this.firstChild = new int[total];
+		this.endChild = new int[total];
+		this.nodeCount = total;
+
+		// group each level into the nodes of the level above it, then pack
+		// those nodes with STR before grouping them in turn
+		int[] childMinLat = boxMinLat, childMinLon = boxMinLon;
+		int[] childMaxLat = boxMaxLat, childMaxLon = boxMaxLon;
+		int childStart = 0;
+		int childCount = n;
+		int levelStart = 0;
+		int leaves = -1;
+		while (levelStart < total) {
+			int count = (childCount + NODE_SIZE - 1) / NODE_SIZE;
+			for (int g = 0; g < count; g++) {
+				int node = levelStart + g;
+				int from = childStart + g * NODE_SIZE;
+				int to = Math.min(childStart + childCount, from + NODE_SIZE);
+				int a = Integer.MAX_VALUE, b = Integer.MAX_VALUE, c = Integer.MIN_VALUE, d = Integer.MIN_VALUE;
+				for (int j = from; j < to; j++) {
+					a = Math.min(a, childMinLat[j]);
+					b = Math.min(b, childMinLon[j]);
+					c = Math.max(c, childMaxLat[j]);
+					d = Math.max(d, childMaxLon[j]);
+				}
+				this.minLat[node] = a;
+				this.minLon[node] = b;
+				this.maxLat[node] = c;
+				this.maxLon[node] = d;
+				this.firstChild[node] = from;
+				this.endChild[node] = to;
+			}
+			if (leaves < 0) {
+				leaves = count;
+			}
+			if (count > 1) {
+				int[] nodeOrder = strOrder(this.minLat, this.minLon, this.maxLat, this.maxLon, levelStart, count);
+				permute(this.minLat, levelStart, nodeOrder);
+				permute(this.minLon, levelStart, nodeOrder);
+				permute(this.maxLat, levelStart, nodeOrder);
+				permute(this.maxLon, levelStart, nodeOrder);
+				permute(this.firstChild, levelStart, nodeOrder);
+				permute(this.endChild, levelStart, nodeOrder);
+			}
+			childMinLat = this.minLat;
+			childMinLon = this.minLon;
+			childMaxLat = this.maxLat;
+			childMaxLon = this.maxLon;
+			childStart = levelStart;
+			childCount = count;
+			levelStart += count;
+		}
+		this.leafCount = Math.max(0, leaves);
+	}
+
+	/**
+	 * Creates a SegmentRTree over GeoSegments.
+	 *
+	 * @requires segments != null && no element of segments is null
+	 * @return a SegmentRTree over the elements of segments.
+	 **/
+	public static SegmentRTree of(GeoSegment... segments) {
+		return new SegmentRTree(segments.clone());
+	}
+
+	/**
+	 * Creates a SegmentRTree over GeoSegments.
+	 *
+	 * @requires segments != null && no element of segments is null
+	 * @return a SegmentRTree over the elements of segments.
+	 **/
+	public static SegmentRTree of(Iterable<GeoSegment> segments) {
+		GeoSegment[] array = new GeoSegment[16];
+		int size = 0;
+		for (GeoSegment gs : segments) {
+			if (size == array.length) {
+				array = Arrays.copyOf(array, size * 2);
+			}
+			array[size++] = gs;
+		}
+		return new SegmentRTree(Arrays.copyOf(array, size));
+	}
+
+	/**
+	 * Returns the number of segments in this.
+	 *
+	 * @return the number of segments in this.
+	 **/
+	public int size() {
+		return this.segments.length;
+	}
+
+	/**
+	 * Finds the segment nearest to a GeoPoint.
+	 *
+	 * @requires gp != null
+	 * @return a segment of this whose distance from gp is minimal, or null if
+	 *         this is empty.
+	 **/
+	public GeoSegment nearest(GeoPoint gp) {
+		if (this.nodeCount == 0) {
+			return null;
+		}
+		int lat = gp.getLatitude();
+		int lon = gp.getLongitude();
+		double x = GeoPoint.projectLongitude(lon);
+		double y = GeoPoint.projectLatitude(lat);
+
+		// best-first search over nodes only: segments are measured when their
+		// leaf is reached, and nodes farther than the best segment so far are
+		// never queued
+		double[] heapDist = new double[64];
+		int[] heapRef = new int[64];
+		int root = this.nodeCount - 1;
+		heapDist[0] = this.squaredBoxKm(root, lat, lon);
+		heapRef[0] = root;
+		int heapSize = 1;
+		double bestDist = Double.POSITIVE_INFINITY;
+		int best = -1;
+		while (heapSize > 0 && heapDist[0] < bestDist) {
+			int node = heapRef[0];
+			heapSize--;
+			siftDown(heapDist, heapRef, heapSize, heapDist[heapSize], heapRef[heapSize]);
+			if (node < this.leafCount) {
+				for (int j = this.firstChild[node]; j < this.endChild[node]; j++) {
+					double d = GeoSegment.squaredDistance(x, y, this.x1[j], this.y1[j], this.x2[j], this.y2[j]);
+					if (d < bestDist) {
+						bestDist = d;
+						best = j;
+					}
+				}
+				continue;
+			}
+			if (heapSize + NODE_SIZE > heapDist.length) {
+				heapDist = Arrays.copyOf(heapDist, heapDist.length * 2);
+				heapRef = Arrays.copyOf(heapRef, heapRef.length * 2);
+			}
+			for (int child = this.firstChild[node]; child < this.endChild[node]; child++) {
+				double d = this.squaredBoxKm(child, lat, lon);
+				if (d < bestDist) {
+					heapSize = siftUp(heapDist, heapRef, heapSize, d, child);
+				}
+			}
+		}
+		return this.segments[best];
+	}
+
+	/**
+	 * Visits the segments near a GeoPoint, nearest first.
+	 *
+	 * @requires gp != null && maxKm >= 0 && visitor != null
+	 * @effects calls visitor.visit() on every segment of this whose distance
+	 *          from gp is at most maxKm, in order of increasing distance, until
+	 *          visitor.visit() returns false.
+	 **/
+	public void visitNearest(GeoPoint gp, double maxKm, SegmentVisitor visitor) {
+		if (this.nodeCount == 0) {
+			return;
+		}
+		int lat = gp.getLatitude();
+		int lon = gp.getLongitude();
+		double x = GeoPoint.projectLongitude(lon);
+		double y = GeoPoint.projectLatitude(lat);
+		double max2 = maxKm * maxKm;
+
+		// a min-heap of nodes and segments, ordered by their distance from gp;
+		// node i is stored as i, and segment j as -(j + 1)
+		double[] heapDist = new double[64];
+		int[] heapRef = new int[64];
+		int heapSize = 0;
+		int root = this.nodeCount - 1;
+		heapDist[0] = this.squaredBoxKm(root, lat, lon);
+		heapRef[0] = root;
+		heapSize = (heapDist[0] <= max2) ? 1 : 0;
+		while (heapSize > 0) {
+			int ref = heapRef[0];
+			heapSize--;
+			siftDown(heapDist, heapRef, heapSize, heapDist[heapSize], heapRef[heapSize]);
+			if (ref < 0) {
+				if (!visitor.visit(this.segments[-(ref + 1)])) {
+					return;
+				}
+				continue;
+			}
+			if (heapSize + NODE_SIZE > heapDist.length) {
+				heapDist = Arrays.copyOf(heapDist, heapDist.length * 2);
+				heapRef = Arrays.copyOf(heapRef, heapRef.length * 2);
+			}
+			for (int child = this.firstChild[ref]; child < this.endChild[ref]; child++) {
+				double d;
+				int childRef;
+				if (ref < this.leafCount) {
+					d = GeoSegment.squaredDistance(x, y, this.x1[child], this.y1[child], this.x2[child], this.y2[child]);
+					childRef = -(child + 1);
+				} else {
+					d = this.squaredBoxKm(child, lat, lon);
+					childRef = child;
+				}
+				if (d <= max2) {
+					heapSize = siftUp(heapDist, heapRef, heapSize, d, childRef);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the segments within a bounding box.
+	 *
+	 * @requires window != null
+	 * @return the segments of this whose bounding box intersects window, in no
+	 *         particular order.
+	 **/
+	public List<GeoSegment> search(BoundingBox window) {
+		final List<GeoSegment> found = new ArrayList<GeoSegment>();
+		this.search(window, gs -> found.add(gs));
+		return found;
+	}
+
+	/**
+	 * Visits the segments within a bounding box.
+	 *
+	 * @requires window != null && visitor != null
+	 * @effects calls visitor.visit(), in no particular order, on every segment
+	 *          of this whose bounding box intersects window, until
+	 *          visitor.visit() returns false.
+	 **/
+	public void search(BoundingBox window, SegmentVisitor visitor) {
+		if (this.nodeCount == 0) {
+			return;
+		}
+		int wMinLat = window.getMinLatitude();
+		int wMinLon = window.getMinLongitude();
+		int wMaxLat = window.getMaxLatitude();
+		int wMaxLon = window.getMaxLongitude();
+		int[] stack = new int[NODE_SIZE * 8];
+		int top = 0;
+		stack[top++] = this.nodeCount - 1;
+		while (top > 0) {
+			int node = stack[--top];
+			if (this.minLat[node] > wMaxLat || this.maxLat[node] < wMinLat ||
+					this.minLon[node] > wMaxLon || this.maxLon[node] < wMinLon) {
+				continue;
+			}
+			if (node < this.leafCount) {
+				for (int j = this.firstChild[node]; j < this.endChild[node]; j++) {
+					if (Math.min(this.lat1[j], this.lat2[j]) <= wMaxLat &&
+							Math.max(this.lat1[j], this.lat2[j]) >= wMinLat &&
+							Math.min(this.lon1[j], this.lon2[j]) <= wMaxLon &&
+							Math.max(this.lon1[j], this.lon2[j]) >= wMinLon &&
+							!visitor.visit(this.segments[j])) {
+						return;
+					}
+				}
+			} else {
+				if (top + NODE_SIZE > stack.length) {
+					stack = Arrays.copyOf(stack, stack.length * 2);
+				}
+				for (int child = this.firstChild[node]; child < this.endChild[node]; child++) {
+					stack[top++] = child;
+				}
+			}
+		}
+	}
+
+	// Returns the squared distance, in square kilometers, from (lat, lon) to
+	// the box of a node.
+	private double squaredBoxKm(int node, int lat, int lon) {
+		long dLon = Math.max(0, Math.max(this.minLon[node] - (long) lon, lon - (long) this.maxLon[node]));
+		long dLat = Math.max(0, Math.max(this.minLat[node] - (long) lat, lat - (long) this.maxLat[node]));
+		double x = dLon * KM_PER_LONGITUDE_UNIT;
+		double y = dLat * KM_PER_LATITUDE_UNIT;
+		return x * x + y * y;
+	}
+
+	// Returns the Sort-Tile-Recursive order of count boxes starting at from:
+	// order[k] is the offset from from of the box that goes in position k.
+	private static int[] strOrder(int[] minLat, int[] minLon, int[] maxLat, int[] maxLon, int from, int count) {
+		int nodes = (count + NODE_SIZE - 1) / NODE_SIZE;
+		int sliceSize = (int) Math.ceil(Math.sqrt(nodes)) * NODE_SIZE;
+		// sort by center, keeping the offset in the low bits of the key; the
+		// sum of two coordinates plus 2^30 is nonnegative and below 2^31
+		long[] keys = new long[count];
+		for (int i = 0; i < count; i++) {
+			long center = (long) minLon[from + i] + maxLon[from + i] + (1L << 30);
+			keys[i] = (center << 32) | i;
+		}
+		Arrays.sort(keys);
+		int[] order = new int[count];
+		for (int s = 0; s < count; s += sliceSize) {
+			int end = Math.min(count, s + sliceSize);
+			for (int k = s; k < end; k++) {
+				int i = (int) keys[k];
+				long center = (long) minLat[from + i] + maxLat[from + i] + (1L << 30);
+				keys[k] = (center << 32) | i;
+			}
+			Arrays.sort(keys, s, end);
+			for (int k = s; k < end; k++) {
+				order[k] = (int) keys[k];
+			}
+		}
+		return order;
+	}
+
+	// Reorders array[from, from + order.length) so that position k holds the
+	// element that was at from + order[k].
+	private static void permute(int[] array, int from, int[] order) {
+		int[] copy = Arrays.copyOfRange(array, from, from + order.length);
+		for (int k = 0; k < order.length; k++) {
+			array[from + k] = copy[order[k]];
+		}
+	}
+
+	// Adds (d, ref) to a min-heap of the given size, and returns its new size.
+	private static int siftUp(double[] dist, int[] ref, int size, double d, int r) {
+		int k = size;
+		while (k > 0) {
+			int parent = (k - 1) >>> 1;
+			if (dist[parent] <= d) {
+				break;
+			}
+			dist[k] = dist[parent];
+			ref[k] = ref[parent];
+			k = parent;
+		}
+		dist[k] = d;
+		ref[k] = r;
+		return size + 1;
+	}
+
+	// Replaces the root of a min-heap of the given size with (d, ref).
+	private static void siftDown(double[] dist, int[] ref, int size, double d, int r) {
+		int k = 0;
+		int half = size >>> 1;
+		while (k < half) {
+			int child = 2 * k + 1;
+			if (child + 1 < size && dist[child + 1] < dist[child]) {
+				child++;
+			}
+			if (d <= dist[child]) {
+				break;
+			}
+			dist[k] = dist[child];
+			ref[k] = ref[child];
+			k = child;
+		}
+		if (size > 0) {
+			dist[k] = d;
+			ref[k] = r;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package homework1;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class SegmentRTreeTest {
+
+	private GeoSegment[] segments;	// random short segments around the Technion
+	private SegmentRTree tree;
+	private GeoPoint[] queries;
+
+
+  	public SegmentRTreeTest() {
+  		Random random = new Random(14);
+  		segments = new GeoSegment[3000];
+  		for (int i = 0; i < segments.length; i++) {
+  			GeoPoint p1 = new GeoPoint(32770000 + random.nextInt(40000), 35000000 + random.nextInt(40000));
+  			GeoPoint p2 = new GeoPoint(p1.getLatitude() + random.nextInt(2000) - 1000,
+  									   p1.getLongitude() + random.nextInt(2000) - 1000);
+  			segments[i] = new GeoSegment("Street " + i, p1, p2);
+  		}
+  		tree = SegmentRTree.of(segments);
+  		queries = new GeoPoint[200];
+  		for (int i = 0; i < queries.length; i++) {
+  			// some of the queries fall outside the indexed area
+  			queries[i] = new GeoPoint(32750000 + random.nextInt(80000), 34980000 + random.nextInt(80000));
+  		}
+  	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+  	public void test() {
+  		show("construction");
+  		show("Size is the number of segments", tree.size() == segments.length);
+  		show("Example segments can be indexed",
+  			SegmentRTree.of(ExampleGeoSegments.segments).size() == ExampleGeoSegments.segments.length);
+  		List<GeoSegment> list = Arrays.asList(ExampleGeoSegments.segments[0], ExampleGeoSegments.segments[1]);
+  		show("Any segment source can be indexed", SegmentRTree.of(list).size() == 2);
+  		SegmentRTree empty = SegmentRTree.of(new GeoSegment[0]);
+  		show("Empty tree has no nearest segment", empty.nearest(queries[0]) == null);
+  		show("Empty tree finds nothing in a window",
+  			empty.search(new BoundingBox(-90000000, -180000000, 90000000, 180000000)).isEmpty());
+
+  		show("nearest()");
+  		boolean ok = true;
+  		for (GeoPoint q : queries) {
+  			double best = Double.POSITIVE_INFINITY;
+  			for (GeoSegment gs : segments) {
+  				best = Math.min(best, gs.distanceTo(q));
+  			}
+  			ok &= Math.abs(tree.nearest(q).distanceTo(q) - best) < 1e-9;
+  		}
+  		show("Nearest segment agrees with a linear scan", ok);
+  		GeoSegment hanita = ExampleGeoSegments.segments[5];
+  		GeoPoint middle = new GeoPoint((hanita.getP1().getLatitude() + hanita.getP2().getLatitude()) / 2,
+  			(hanita.getP1().getLongitude() + hanita.getP2().getLongitude()) / 2);
+  		show("Nearest example segment to a point on Hanita is on Hanita",
+  			SegmentRTree.of(ExampleGeoSegments.segments).nearest(middle).getName().equals("Hanita"));
+
+  		show("visitNearest()");
+  		final GeoPoint q = segments[1].getP1();
+  		final double[] last = {0};
+  		final int[] count = {0};
+  		final boolean[] ordered = {true};
+  		tree.visitNearest(q, 0.3, gs -> {
+  			double d = gs.distanceTo(q);
+  			ordered[0] &= d >= last[0] && d <= 0.3;
+  			last[0] = d;
+  			count[0]++;
+  			return true;
+  		});
+  		int expected = 0;
+  		for (GeoSegment gs : segments) {
+  			if (gs.distanceTo(q) <= 0.3) {
+  				expected++;
+  			}
+  		}
+  		show("Segments are visited nearest first", ordered[0]);
+  		show("Every segment within the distance is visited", count[0] == expected && expected > 0);
+  		count[0] = 0;
+  		tree.visitNearest(q, Double.POSITIVE_INFINITY, gs -> ++count[0] < 5);
+  		show("Visitor can stop the query", count[0] == 5);
+
+  		show("search()");
+  		ok = true;
+  		Random random = new Random(1);
+  		for (int i = 0; i < 50; i++) {
+  			int lat = 32770000 + random.nextInt(40000);
+  			int lon = 35000000 + random.nextInt(40000);
+  			BoundingBox window = new BoundingBox(lat, lon, lat + random.nextInt(5000), lon + random.nextInt(5000));
+  			Set<GeoSegment> expectedSet = new HashSet<GeoSegment>();
+  			for (GeoSegment gs : segments) {
+  				if (window.intersects(new BoundingBox(gs.getP1(), gs.getP2()))) {
+  					expectedSet.add(gs);
+  				}
+  			}
+  			List<GeoSegment> found = tree.search(window);
+  			ok &= found.size() == expectedSet.size() && expectedSet.containsAll(found);
+  		}
+  		show("Window query agrees with a linear scan", ok);
+  		count[0] = 0;
+  		tree.search(new BoundingBox(-90000000, -180000000, 90000000, 180000000), gs -> ++count[0] < 10);
+  		show("Visitor can stop a window query", count[0] == 10);
+  	}
+
+
+	public static void main(String[] args) {
+		SegmentRTreeTest segmentRTreeTest = new SegmentRTreeTest();
+		segmentRTreeTest.test();
+	}
+}
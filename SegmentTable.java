@@ -0,0 +1,282 @@
+package homework1;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A SegmentTable is a compact, columnar store of many GeoSegments, used to
+ * hold large road networks in memory.
+ * <p>
+ * A GeoSegment object graph costs a segment, two GeoPoints and a name for
+ * every segment. A SegmentTable instead keeps one primitive array per field:
+ * the endpoints in four int columns, in millionths of degrees, the heading in
+ * a float column and the length in a double column. Names are dictionary
+ * encoded: each segment holds the id of its name in StreetNames, where every
+ * distinct name is stored once. A row costs 32 bytes, plus the space left
+ * free for growth.
+ * <p>
+ * Rows are identified by their index, in the order they were added.
+ * GeoSegment objects are only created on demand by <tt>get()</tt>; their
+ * lengths are taken from the table rather than computed again.
+ * <p>
+ * A SegmentTable is not safe for concurrent modification, but may be read by
+ * any number of threads once it is no longer modified.
+ * <p>
+ * <b>The following fields are used in the specification:</b>
+ * <pre>
+ *   segments : sequence   // the segments added so far, in order
+ * </pre>
+ **/
+public final class SegmentTable {
+
+	private int size;
+	private int[] lat1;
+	private int[] lon1;
+	private int[] lat2;
+	private int[] lon2;
+	// ids of the names in StreetNames
+	private int[] nameIds;
+	private float[] headings;
+	private double[] lengths;
+
+	/**
+	 * Constructs a new SegmentTable.
+	 *
+	 * @effects Constructs a new SegmentTable with no segments.
+	 **/
+	public SegmentTable() {
+		this.lat1 = new int[16];
+		this.lon1 = new int[16];
+		this.lat2 = new int[16];
+		this.lon2 = new int[16];
+		this.nameIds = new int[16];
+		this.headings = new float[16];
+		this.lengths = new double[16];
+	}
+
+	/**
+	 * Creates a SegmentTable holding GeoSegments.
+	 *
+	 * @requires segments != null && no element of segments is null
+	 * @return a new SegmentTable t such that t.segments = segments
+	 **/
+	public static SegmentTable of(GeoSegment... segments) {
+		SegmentTable table = new SegmentTable();
+		for (GeoSegment gs : segments) {
+			table.add(gs);
+		}
+		return table;
+	}
+
+	/**
+	 * Creates a SegmentTable holding GeoSegments.
+	 *
+	 * @requires segments != null && no element of segments is null
+	 * @return a new SegmentTable t such that t.segments = segments
+	 **/
+	public static SegmentTable of(Iterable<GeoSegment> segments) {
+		SegmentTable table = new SegmentTable();
+		for (GeoSegment gs : segments) {
+			table.add(gs);
+		}
+		return table;
+	}
+
+	/**
+	 * Appends a GeoSegment to this.
+	 *
+	 * @requires gs != null
+	 * @modifies this
+	 * @effects appends gs to the end of this.segments
+	 * @return the index of gs in this.segments
+	 **/
+	public int add(GeoSegment gs) {
+		return this.add(gs.getNameId(), gs.getP1().getLatitude(), gs.getP1().getLongitude(), gs.getP2().getLatitude(),
+				gs.getP2().getLongitude(), gs.getHeading(), gs.getLength());
+	}
+
+	/**
+	 * Appends a segment, given by its name and endpoints, to this.
+	 *
+	 * @requires name != null && (lat1, lon1) and (lat2, lon2) are valid
+	 *           GeoPoints
+	 * @modifies this
+	 * @effects appends the segment named name from (lat1, lon1) to
+	 *          (lat2, lon2) to the end of this.segments
+	 * @return the index of the new segment in this.segments
+	 **/
+	public int add(String name, int lat1, int lon1, int lat2, int lon2) {
+		// the same computations as GeoPoint.distanceTo() and headingTo(),
+		// without creating the GeoPoints
+		double x = GeoPoint.projectLongitude(lon2) - GeoPoint.projectLongitude(lon1);
+		double y = GeoPoint.projectLatitude(lat2) - GeoPoint.projectLatitude(lat1);
+		double heading = (lat1 == lat2 && lon1 == lon2) ? -1 : GeoPoint.heading(x, y);
+		return this.add(StreetNames.idOf(name), lat1, lon1, lat2, lon2, heading, Math.sqrt(x * x + y * y));
+	}
+
+	private int add(int nameId, int lat1, int lon1, int lat2, int lon2, double heading, double length) {
+		if (this.size == this.lat1.length) {
+			int capacity = this.size * 2;
+			this.lat1 = Arrays.copyOf(this.lat1, capacity);
+			this.lon1 = Arrays.copyOf(this.lon1, capacity);
+			this.lat2 = Arrays.copyOf(this.lat2, capacity);
+			this.lon2 = Arrays.copyOf(this.lon2, capacity);
+			this.nameIds = Arrays.copyOf(this.nameIds, capacity);
+			this.headings = Arrays.copyOf(this.headings, capacity);
+			this.lengths = Arrays.copyOf(this.lengths, capacity);
+		}
+		int i = this.size++;
+		this.lat1[i] = lat1;
+		this.lon1[i] = lon1;
+		this.lat2[i] = lat2;
+		this.lon2[i] = lon2;
+		this.nameIds[i] = nameId;
+		this.headings[i] = (float) heading;
+		this.lengths[i] = length;
+		return i;
+	}
+
+	/**
+	 * Returns the number of segments in this.
+	 *
+	 * @return the number of elements of this.segments
+	 **/
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the name id of a segment.
+	 *
+	 * @requires 0 <= index < this.size()
+	 * @return StreetNames.idOf(this.segments[index].name)
+	 **/
+	public int getNameId(int index) {
+		this.checkIndex(index);
+		return this.nameIds[index];
+	}
+
+	/**
+	 * Returns the name of a segment.
+	 *
+	 * @requires 0 <= index < this.size()
+	 * @return the name of this.segments[index]
+	 **/
+	public String getName(int index) {
+		this.checkIndex(index);
+		return StreetNames.nameOf(this.nameIds[index]);
+	}
+
+	/**
+	 * Returns the latitude of the first endpoint of a segment.
+	 *
+	 * @requires 0 <= index < this.size()
+	 * @return the latitude of this.segments[index].p1, in millionths of degrees
+	 **/
+	public int getLatitude1(int index) {
+		this.checkIndex(index);
+		return this.lat1[index];
+	}
+
+	/**
+	 * Returns the longitude of the first endpoint of a segment.
+	 *
+	 * @requires 0 <= index < this.size()
+	 * @return the longitude of this.segments[index].p1, in millionths of
+	 *         degrees
+	 **/
+	public int getLongitude1(int index) {
+		this.checkIndex(index);
+		return this.lon1[index];
+	}
+
+	/**
+	 * Returns the latitude of the second endpoint of a segment.
+	 *
+	 * @requires 0 <= index < this.size()
+	 * @return the latitude of this.segments[index].p2, in millionths of degrees
+	 **/
+	public int getLatitude2(int index) {
+		this.checkIndex(index);
+		return this.lat2[index];
+	}
+
+	/**
+	 * Returns the longitude of the second endpoint of a segment.
+	 *
+	 * @requires 0 <= index < this.size()
+	 * @return the longitude of this.segments[index].p2, in millionths of
+	 *         degrees
+	 **/
+	public int getLongitude2(int index) {
+		this.checkIndex(index);
+		return this.lon2[index];
+	}
+
+	/**
+	 * Returns the heading of a segment.
+	 *
+	 * @requires 0 <= index < this.size()
+	 * @return this.segments[index].heading, rounded to a float
+	 **/
+	public float getHeading(int index) {
+		this.checkIndex(index);
+		return this.headings[index];
+	}
+
+	/**
+	 * Returns the length of a segment.
+	 *
+	 * @requires 0 <= index < this.size()
+	 * @return this.segments[index].length
+	 **/
+	public double getLength(int index) {
+		this.checkIndex(index);
+		return this.lengths[index];
+	}
+
+	/**
+	 * Creates a GeoSegment from a row of this.
+	 *
+	 * @requires 0 <= index < this.size()
+	 * @return a new GeoSegment equal to this.segments[index]. Its length is
+	 *         taken from this; its heading, which this keeps only as a float,
+	 *         is computed again when first asked for.
+	 **/
+	public GeoSegment get(int index) {
+		this.checkIndex(index);
+		return new GeoSegment(this.nameIds[index], new GeoPoint(this.lat1[index], this.lon1[index]),
+				new GeoPoint(this.lat2[index], this.lon2[index]), HeadingEngine.EXACT, Double.NaN,
+				this.lengths[index], 0);
+	}
+
+	/**
+	 * Returns a sequential Stream over the segments of this, created on demand
+	 * by <tt>get()</tt>.
+	 *
+	 * @return a Stream over the elements of this.segments, in order.
+	 **/
+	public Stream<GeoSegment> segments() {
+		return IntStream.range(0, this.size).mapToObj(this::get);
+	}
+
+	/**
+	 * Returns the total length of the segments of this.
+	 *
+	 * @return sum(0 <= i < this.size()) . this.segments[i].length
+	 **/
+	public double getLength() {
+		double sum = 0;
+		for (int i = 0; i < this.size; i++) {
+			sum += this.lengths[i];
+		}
+		return sum;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package homework1;
+
+import java.util.Random;
+
+/**
+ * Measures the heap used by a road network held as GeoSegment objects and as
+ * a SegmentTable.
+ * <p>
+ * Run with <tt>java homework1.SegmentTableBenchmark [segments] [names]</tt>.
+ * Prints the retained heap, in bytes per segment, of a network of connected
+ * segments spread over a city, with names drawn from a fixed set of streets.
+ * The numbers are measured from <tt>Runtime</tt> after garbage collection,
+ * so they are approximate.
+ */
+public class SegmentTableBenchmark {
+
+	private final int segments;
+	private final String[] streets;
+
+	public SegmentTableBenchmark(int segments, int names) {
+		this.segments = segments;
+		streets = new String[names];
+		for (int i = 0; i < names; i++) {
+			streets[i] = "Street " + i;
+		}
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 4; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	// builds the network as objects, with every segment starting where the
+	// previous one ended, as in a route
+	private GeoSegment[] buildObjects() {
+		Random random = new Random(15);
+		GeoSegment[] network = new GeoSegment[segments];
+		GeoPoint p1 = new GeoPoint(32780000, 35010000);
+		for (int i = 0; i < segments; i++) {
+			GeoPoint p2 = new GeoPoint(32780000 + random.nextInt(100000), 35010000 + random.nextInt(100000));
+			network[i] = new GeoSegment(streets[random.nextInt(streets.length)], p1, p2);
+			network[i].getHeading();
+			network[i].getLength();
+			p1 = p2;
+		}
+		return network;
+	}
+
+	private SegmentTable buildTable() {
+		Random random = new Random(15);
+		SegmentTable table = new SegmentTable();
+		int lat1 = 32780000, lon1 = 35010000;
+		for (int i = 0; i < segments; i++) {
+			int lat2 = 32780000 + random.nextInt(100000);
+			int lon2 = 35010000 + random.nextInt(100000);
+			table.add(streets[random.nextInt(streets.length)], lat1, lon1, lat2, lon2);
+			lat1 = lat2;
+			lon1 = lon2;
+		}
+		return table;
+	}
+
+	public void benchmark() {
+		long base = usedHeap();
+		GeoSegment[] network = buildObjects();
+		long objects = usedHeap() - base;
+		System.out.printf("%-14s %6.1f bytes/segment (%d segments)%n", "GeoSegment[]",
+				(double) objects / segments, network.length);
+		network = null;
+
+		base = usedHeap();
+		SegmentTable table = buildTable();
+		long columns = usedHeap() - base;
+		System.out.printf("%-14s %6.1f bytes/segment (%d segments)%n", "SegmentTable",
+				(double) columns / segments, table.size());
+	}
+
+	public static void main(String[] args) {
+		int segments = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+		int names = (args.length > 1) ? Integer.parseInt(args[1]) : 5000;
+		new SegmentTableBenchmark(segments, names).benchmark();
+	}
+}
@@ -0,0 +1,93 @@
+package homework1;
+
+public class SegmentTableTest {
+
+	private static final double tolerance = 0.01;
+
+  	private SegmentTable table;
+
+
+  	public SegmentTableTest() {
+  		table = SegmentTable.of(ExampleGeoSegments.segments);
+  	}
+
+
+  	boolean same(double x, double y) {
+  		return ((y >= x-tolerance) && (y <= x+tolerance));
+  	}
+
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+  	public void test() {
+  		show("add()");
+  		show("Size is the number of segments", table.size() == ExampleGeoSegments.segments.length);
+  		boolean ok = true;
+  		for (int i = 0; i < table.size(); i++) {
+  			GeoSegment gs = ExampleGeoSegments.segments[i];
+  			ok &= table.getName(i).equals(gs.getName()) &&
+  				table.getLatitude1(i) == gs.getP1().getLatitude() &&
+  				table.getLongitude1(i) == gs.getP1().getLongitude() &&
+  				table.getLatitude2(i) == gs.getP2().getLatitude() &&
+  				table.getLongitude2(i) == gs.getP2().getLongitude() &&
+  				table.getLength(i) == gs.getLength() &&
+  				same(table.getHeading(i), gs.getHeading());
+  		}
+  		show("Columns hold the fields of the segments", ok);
+  		SegmentTable coordinates = new SegmentTable();
+  		GeoSegment hanita = ExampleGeoSegments.segments[5];
+  		coordinates.add(hanita.getName(), hanita.getP1().getLatitude(), hanita.getP1().getLongitude(),
+  			hanita.getP2().getLatitude(), hanita.getP2().getLongitude());
+  		show("Length from coordinates equals the segment length",
+  			coordinates.getLength(0) == hanita.getLength());
+  		show("Heading from coordinates equals the segment heading",
+  			coordinates.getHeading(0) == (float) hanita.getHeading());
+  		coordinates.add("Dot", 32783098, 35014528, 32783098, 35014528);
+  		show("Zero length segment has heading -1", coordinates.getHeading(1) == -1);
+
+  		show("names");
+  		int hanitaId = StreetNames.idOf("Hanita");
+  		show("Segments with the same name share an id",
+  			table.getNameId(5) == hanitaId && table.getNameId(6) == hanitaId);
+  		show("Names are stored once", table.getName(5) == table.getName(6));
+
+  		show("get()");
+  		ok = true;
+  		for (int i = 0; i < table.size(); i++) {
+  			GeoSegment gs = table.get(i);
+  			ok &= gs.equals(ExampleGeoSegments.segments[i]) &&
+  				gs.getLength() == ExampleGeoSegments.segments[i].getLength() &&
+  				gs.getHeading() == ExampleGeoSegments.segments[i].getHeading();
+  		}
+  		show("Materialized segments equal the originals", ok);
+  		show("Stream holds every segment", table.segments().count() == table.size());
+  		show("Total length is the sum of the lengths",
+  			same(table.getLength(), table.segments().mapToDouble(GeoSegment::getLength).sum()));
+  		boolean thrown = false;
+  		try {
+  			table.get(table.size());
+  		} catch (IndexOutOfBoundsException e) {
+  			thrown = true;
+  		}
+  		show("Index past the end is rejected", thrown);
+  	}
+
+
+	public static void main(String[] args) {
+		SegmentTableTest segmentTableTest = new SegmentTableTest();
+		segmentTableTest.test();
+	}
+}
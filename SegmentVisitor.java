@@ -0,0 +1,19 @@
+package homework1;
+
+/**
+ * A SegmentVisitor receives the GeoSegments found by a query on a
+ * SegmentRTree, one at a time, as they are found.
+ *
+ * @see homework1.SegmentRTree
+ */
+public interface SegmentVisitor {
+
+	/**
+	 * Receives a GeoSegment found by a query.
+	 *
+	 * @requires gs != null
+	 * @return true to continue the query, or false to stop it without
+	 *         visiting any more segments.
+	 **/
+	boolean visit(GeoSegment gs);
+}
@@ -0,0 +1,81 @@
+package homework1;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * StreetNames is the global dictionary of the names of GeoSegments. It maps
+ * every distinct name to a small int id, assigned in order of first use and
+ * never reused, so that two names are equal exactly when their ids are.
+ * <p>
+ * Every GeoSegment looks its name up once, when it is constructed, and keeps
+ * only the id. Grouping segments into GeoFeatures, and comparing or hashing
+ * segments, then only compares ints, and each distinct name is stored once
+ * however many segments carry it.
+ * <p>
+ * Lookups of names already in the dictionary do not lock. StreetNames is
+ * safe for use by multiple threads. Names are never removed.
+ */
+public final class StreetNames {
+
+	private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+
+	// names[id] is the name with that id; written only under the class lock,
+	// before the id is published through ids
+	private static volatile String[] names = new String[256];
+	private static int count;
+
+	private StreetNames() {
+	}
+
+	/**
+	 * Returns the id of a name, assigning it a new id on first use.
+	 *
+	 * @requires name != null
+	 * @return the id of name
+	 **/
+	public static int idOf(String name) {
+		Integer id = ids.get(name);
+		return (id != null) ? id : add(name);
+	}
+
+	private static synchronized int add(String name) {
+		Integer id = ids.get(name);
+		if (id != null) {
+			return id;
+		}
+		String[] current = names;
+		if (count == current.length) {
+			current = Arrays.copyOf(current, count * 2);
+			names = current;
+		}
+		current[count] = name;
+		ids.put(name, count);
+		return count++;
+	}
+
+	/**
+	 * Returns the name with a given id.
+	 *
+	 * @requires id was returned by idOf()
+	 * @return the name whose id is id. The same String instance is returned
+	 *         for every call with the same id.
+	 **/
+	public static String nameOf(int id) {
+		String[] current = names;
+		String name = (id >= 0 && id < current.length) ? current[id] : null;
+		if (name == null) {
+			throw new IndexOutOfBoundsException("Unknown name id: " + id);
+		}
+		return name;
+	}
+
+	/**
+	 * Returns the number of names in the dictionary.
+	 *
+	 * @return the number of distinct names given an id so far.
+	 **/
+	public static int size() {
+		return ids.size();
+	}
+}
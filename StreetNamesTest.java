@@ -0,0 +1,79 @@
+package homework1;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class StreetNamesTest {
+
+	public void show(String str) {
+		System.out.println();
+		System.out.println("***** " + str + " *****");
+	}
+
+
+	public void show(String str, boolean ok) {
+		if (ok)
+			System.out.print("v ");
+		else
+			System.out.print("x ");
+		System.out.println(str);
+	}
+
+
+  	public void test() throws InterruptedException {
+  		show("idOf()");
+  		int id = StreetNames.idOf("Hanita");
+  		show("Same name gets the same id", StreetNames.idOf(new String("Hanita")) == id);
+  		show("Different names get different ids", StreetNames.idOf("Hagalil") != id);
+  		show("Id maps back to the name", StreetNames.nameOf(id).equals("Hanita"));
+  		boolean thrown = false;
+  		try {
+  			StreetNames.nameOf(-1);
+  		} catch (IndexOutOfBoundsException e) {
+  			thrown = true;
+  		}
+  		show("Unknown id is rejected", thrown);
+
+  		show("GeoSegment");
+  		GeoPoint p1 = new GeoPoint(32783098, 35014528);
+  		GeoPoint p2 = new GeoPoint(32792115, 35014528);
+  		GeoSegment gs1 = new GeoSegment(new String("Trumpeldor Avenue"), p1, p2);
+  		GeoSegment gs2 = new GeoSegment(new String("Trumpeldor Avenue"), p1, p2);
+  		show("Segments carry the id of their name",
+  			gs1.getNameId() == StreetNames.idOf("Trumpeldor Avenue"));
+  		show("Segments with equal names share the name instance", gs1.getName() == gs2.getName());
+  		show("Segments with equal names are equal", gs1.equals(gs2) && gs1.hashCode() == gs2.hashCode());
+  		show("Reversed segment keeps the id", gs1.reverse().getNameId() == gs1.getNameId());
+  		show("Feature carries the id of its segments", new GeoFeature(gs1).getNameId() == gs1.getNameId());
+
+  		show("concurrency");
+  		final int names = 2000;
+  		final int[][] ids = new int[4][names];
+  		Thread[] threads = new Thread[ids.length];
+  		for (int t = 0; t < threads.length; t++) {
+  			final int[] mine = ids[t];
+  			threads[t] = new Thread(() -> {
+  				for (int i = 0; i < names; i++) {
+  					mine[i] = StreetNames.idOf("Concurrent Street " + i);
+  				}
+  			});
+  			threads[t].start();
+  		}
+  		for (Thread thread : threads) {
+  			thread.join();
+  		}
+  		AtomicBoolean ok = new AtomicBoolean(true);
+  		for (int i = 0; i < names; i++) {
+  			for (int t = 1; t < ids.length; t++) {
+  				ok.compareAndSet(true, ids[t][i] == ids[0][i]);
+  			}
+  			ok.compareAndSet(true, StreetNames.nameOf(ids[0][i]).equals("Concurrent Street " + i));
+  		}
+  		show("Threads racing on the same names agree on their ids", ok.get());
+  	}
+
+
+	public static void main(String[] args) throws InterruptedException {
+		StreetNamesTest streetNamesTest = new StreetNamesTest();
+		streetNamesTest.test();
+	}
+}
@@ -0,0 +1,34 @@
+package homework1;
+
+import java.io.IOException;
+
+/**
+ * A StringBuilderAction appends text to StringBuilders only, through methods
+ * that, like Appendable.append(), are declared to throw IOException. A
+ * StringBuilder never throws IOException, so perform() runs such an action
+ * without making its caller handle one.
+ */
+interface StringBuilderAction {
+
+	/**
+	 * Runs this action.
+	 *
+	 * @throws IOException never, if this only appends to StringBuilders.
+	 **/
+	void run() throws IOException;
+
+	/**
+	 * Runs an action that only appends to StringBuilders.
+	 *
+	 * @requires action != null
+	 * @effects action.run()
+	 * @throws AssertionError if action throws IOException after all.
+	 **/
+	static void perform(StringBuilderAction action) {
+		try {
+			action.run();
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+	}
+}
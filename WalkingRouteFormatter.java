@@ -1,6 +1,6 @@
 package homework1;
 
-import java.text.DecimalFormat;
+import java.io.IOException;
 
 /**
  * A WalkingDirections class knows how to create a textual description of
@@ -23,22 +23,60 @@ import java.text.DecimalFormat;
  * walking speed of 20 minutes per kilometer. The time in minutes should
  * be reported to the nearest minute. Each line should be terminated by a
  * newline and should include no extra spaces other than those shown above.
+ * <p>
+ * A WalkingRouteFormatter may be constructed with another walking speed.
+ * WalkingRouteFormatters are immutable and safe for use by multiple threads.
  **/
 public class WalkingRouteFormatter extends RouteFormatter {
 
-	private static int walkingSpeed = 20; // minutes per kilometer
+	/**
+	 * The walking speed of a WalkingRouteFormatter constructed without one,
+	 * in minutes per kilometer.
+	 */
+	public static final int DEFAULT_WALKING_SPEED = 20;
+
+	private final int walkingSpeed; // minutes per kilometer
+
+	/**
+	 * Constructs a new WalkingRouteFormatter.
+	 * @effects Constructs a new WalkingRouteFormatter assuming a walking
+	 * 			speed of DEFAULT_WALKING_SPEED minutes per kilometer.
+	 */
+	public WalkingRouteFormatter() {
+		this(DEFAULT_WALKING_SPEED);
+	}
+
+	/**
+	 * Constructs a new WalkingRouteFormatter.
+	 * @requires walkingSpeed > 0
+	 * @effects Constructs a new WalkingRouteFormatter assuming a walking
+	 * 			speed of walkingSpeed minutes per kilometer.
+	 * @throws IllegalArgumentException if walkingSpeed <= 0.
+	 */
+	public WalkingRouteFormatter(int walkingSpeed) {
+		if (walkingSpeed <= 0) {
+			throw new IllegalArgumentException("Walking speed must be positive: " + walkingSpeed);
+		}
+		this.walkingSpeed = walkingSpeed;
+	}
+
+	/**
+	 * Returns the walking speed assumed by this.
+	 * @return the walking speed of this, in minutes per kilometer.
+	 */
+	public int getWalkingSpeed() {
+		return this.walkingSpeed;
+	}
+
   	/**
-     * Computes a single line of a multi-line directions String that
-     * represents the instructions for walking along a single geographic
-     * feature.
-     * @requires 0 <= origHeading < 360
-     * @param geoFeature the geographical feature to traverse.
-     * @param origHeading the initial heading.
-     * @return A newline-terminated <tt>String</tt> that gives directions
-     * 		   on how to walk along this geographical feature.<br>
-     * Calling <tt>computeLine</tt> with a GeoFeature instance and an
-     * initial heading should produce a newline-terminated String in the
-     * following form:
+     * Appends a single line of walking directions, for walking along a single
+     * geographic feature, to out, given the turn onto the feature.
+     * @requires geoFeature != null && out != null &&
+     * 			0 <= origHeading < 360 &&
+     * 			turn = getTurn(origHeading, geoFeature.startHeading)
+     * @modifies out
+     * @effects appends to out a newline-terminated line in the following
+     * 			form:
      * <p>
      * <tt>
      * Turn sharp left onto Hanita and walk for 27 minutes.<br>
@@ -47,15 +85,19 @@ public class WalkingRouteFormatter extends RouteFormatter {
      * In the output above, "Hanita" represents the name of the
      * geographic feature, and "27 minutes" is the length of time that it
      * would take to walk along the geographic feature, assuming a walking
-     * speed of 20 minutes per kilometer. The time in minutes should be
+     * speed of 20 minutes per kilometer, or the speed this was constructed
+     * with. The time in minutes should be
      * reported to the nearest minute. Each line should be terminated by a
      * newline and should include no extra spaces other than those shown
      * above.
-     **/
-  	public String computeLine(GeoFeature geoFeature, double origHeading) {
-  		
-  		String turnStr = this.getTurnString(origHeading, geoFeature.getStartHeading());
-  		long minutes = Math.round((double)walkingSpeed * geoFeature.getLength());
-  		return turnStr + " onto " + geoFeature.getName() + " and walk for " + minutes + " minutes.\n";
+     * @throws IOException if out throws IOException.
+     */
+  	protected void appendLine(GeoFeature geoFeature, double origHeading, Turn turn, Appendable out)
+  			throws IOException {
+  		long minutes = Math.round((double)this.walkingSpeed * geoFeature.getLength());
+  		out.append(this.getTurnString(turn))
+  			.append(" onto ").append(geoFeature.getName()).append(" and walk for ");
+  		FixedPointFormat.appendWhole(out, minutes);
+  		out.append(" minutes.\n");
   	}
 }